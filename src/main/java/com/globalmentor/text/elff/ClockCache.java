@@ -0,0 +1,219 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.text.elff;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static java.util.Objects.*;
+
+/**
+ * A bounded, thread-safe cache using the CLOCK eviction policy.
+ * <p>
+ * Entries are kept in a number of independently locked segments. Each segment arranges its entries in a circle with a reference bit per entry, which is set
+ * whenever the entry is retrieved. When a segment is full, a clock hand sweeps the circle, clearing reference bits, and evicts the first entry that has not
+ * been referenced since the last sweep. A newly added entry is not marked as referenced, so values that are only ever seen once are the first to be evicted.
+ * </p>
+ * <p>
+ * The number of hits, misses, and evictions are recorded so that the cache can be sized appropriately.
+ * </p>
+ * @param <K> The type of key.
+ * @param <V> The type of cached value.
+ */
+public class ClockCache<K, V> {
+
+	/** The number of segments, which must be a power of two. */
+	private static final int SEGMENT_COUNT = 16;
+
+	/** A single independently locked section of the cache. */
+	private static class Segment<K, V> {
+
+		/** The slot index of each cached key. */
+		private final Map<K, Integer> slotMap;
+
+		/** The key in each slot. */
+		private final Object[] keys;
+
+		/** The value in each slot. */
+		private final Object[] values;
+
+		/** Whether each slot has been referenced since the clock hand last passed it. */
+		private final boolean[] referenced;
+
+		/** The number of slots in use. */
+		private int size = 0;
+
+		/** The slot at which the next eviction search starts. */
+		private int hand = 0;
+
+		/**
+		 * Capacity constructor.
+		 * @param capacity The maximum number of entries in the segment.
+		 */
+		Segment(final int capacity) {
+			slotMap = new HashMap<K, Integer>(capacity * 2);
+			keys = new Object[capacity];
+			values = new Object[capacity];
+			referenced = new boolean[capacity];
+		}
+	}
+
+	/** The segments of the cache. */
+	private final Segment<K, V>[] segments;
+
+	/** The maximum number of entries in the cache. */
+	private final int capacity;
+
+	/** @return The maximum number of entries in the cache. */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/** The number of times a value was found in the cache. */
+	private final LongAdder hitCount = new LongAdder();
+
+	/** @return The number of times a value was found in the cache. */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/** The number of times a value was not found in the cache. */
+	private final LongAdder missCount = new LongAdder();
+
+	/** @return The number of times a value was not found in the cache. */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/** The number of entries that have been evicted to make room for others. */
+	private final LongAdder evictionCount = new LongAdder();
+
+	/** @return The number of entries that have been evicted to make room for others. */
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	/** @return The ratio of hits to requests, or 0.0 if no values have been requested. */
+	public double getHitRate() {
+		final long hits = getHitCount();
+		final long requests = hits + getMissCount();
+		return requests > 0 ? (double)hits / requests : 0.0;
+	}
+
+	/** @return The number of entries currently in the cache. */
+	public int getSize() {
+		int size = 0;
+		for(final Segment<K, V> segment : segments) {
+			synchronized(segment) {
+				size += segment.size;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Capacity constructor.
+	 * @param capacity The maximum number of entries in the cache.
+	 * @throws IllegalArgumentException if the given capacity is not positive.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public ClockCache(final int capacity) {
+		if(capacity <= 0) {
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+		}
+		this.capacity = capacity;
+		final int segmentCount = Math.min(SEGMENT_COUNT, Integer.highestOneBit(capacity)); //use fewer segments for small caches
+		segments = new Segment[segmentCount];
+		for(int i = 0; i < segmentCount; ++i) { //distribute the capacity among the segments
+			segments[i] = new Segment<K, V>(capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0));
+		}
+	}
+
+	/**
+	 * Retrieves a value from the cache, loading and caching it if it is not present. The value is loaded without any lock held, so the same value may
+	 * occasionally be loaded more than once by concurrent threads; in that case the first value cached is returned to all of them.
+	 * @param key The key of the value to retrieve.
+	 * @param loader The function to load the value if it is not present in the cache.
+	 * @return The cached or newly loaded value.
+	 * @throws NullPointerException if the given key and/or loader is <code>null</code>, or the loader returns <code>null</code>.
+	 */
+	@SuppressWarnings("unchecked")
+	//only values of the correct type are stored in the segments
+	public V get(final K key, final Function<? super K, ? extends V> loader) {
+		final Segment<K, V> segment = getSegment(requireNonNull(key, "Key cannot be null."));
+		synchronized(segment) {
+			final Integer slot = segment.slotMap.get(key);
+			if(slot != null) {
+				hitCount.increment();
+				segment.referenced[slot.intValue()] = true;
+				return (V)segment.values[slot.intValue()];
+			}
+		}
+		missCount.increment();
+		final V value = requireNonNull(loader.apply(key), "Loaded value cannot be null.");
+		synchronized(segment) {
+			final Integer existingSlot = segment.slotMap.get(key);
+			if(existingSlot != null) { //if another thread cached the value in the meantime
+				return (V)segment.values[existingSlot.intValue()];
+			}
+			final int slotCount = segment.keys.length;
+			final int slot;
+			if(segment.size < slotCount) { //if there is an unused slot
+				slot = segment.size++;
+			} else { //sweep for an unreferenced slot
+				while(segment.referenced[segment.hand]) {
+					segment.referenced[segment.hand] = false; //give it a second chance
+					segment.hand = (segment.hand + 1) % slotCount;
+				}
+				slot = segment.hand;
+				segment.hand = (segment.hand + 1) % slotCount;
+				segment.slotMap.remove(segment.keys[slot]);
+				evictionCount.increment();
+			}
+			segment.keys[slot] = key;
+			segment.values[slot] = value;
+			segment.referenced[slot] = false;
+			segment.slotMap.put(key, Integer.valueOf(slot));
+		}
+		return value;
+	}
+
+	/** Removes all entries from the cache. The hit, miss, and eviction counts are not affected. */
+	public void clear() {
+		for(final Segment<K, V> segment : segments) {
+			synchronized(segment) {
+				segment.slotMap.clear();
+				Arrays.fill(segment.keys, null);
+				Arrays.fill(segment.values, null);
+				Arrays.fill(segment.referenced, false);
+				segment.size = 0;
+				segment.hand = 0;
+			}
+		}
+	}
+
+	/**
+	 * Determines the segment for the given key.
+	 * @param key The key.
+	 * @return The segment in which the key is cached.
+	 */
+	private Segment<K, V> getSegment(final K key) {
+		final int hash = key.hashCode();
+		return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)]; //spread the higher bits into the lower bits used to select a segment
+	}
+}
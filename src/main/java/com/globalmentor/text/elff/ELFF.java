@@ -17,10 +17,12 @@
 package com.globalmentor.text.elff;
 
 import java.io.*;
+import java.math.BigDecimal;
 import java.net.*;
 import java.text.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import static java.util.Objects.*;
 
@@ -71,6 +73,39 @@ public class ELFF {
 	/** The fields used in this ELFF log. */
 	private final Field<?>[] fields;
 
+	/** The map of field indexes keyed to fields, for looking up the column of a field in a parsed entry. */
+	private final Map<Field<?>, Integer> fieldIndexMap;
+
+	/**
+	 * Determines the column index of the given field in this log.
+	 * @param field The field for which an index should be returned.
+	 * @return The zero-based index of the given field, or -1 if the field is not used in this log.
+	 */
+	int getFieldIndex(final Field<?> field) {
+		final Integer index = fieldIndexMap.get(field); //look up the index of the field
+		return index != null ? index.intValue() : -1;
+	}
+
+	/** @return The number of fields used in this log. */
+	int getFieldCount() {
+		return fields.length;
+	}
+
+	/** @return The read-only list of fields used in this log, in the order in which their values appear in each entry. */
+	public List<Field<?>> getFields() {
+		return Collections.unmodifiableList(Arrays.asList(fields));
+	}
+
+	/**
+	 * Retrieves the field at the given column index.
+	 * @param index The zero-based index of the field to retrieve.
+	 * @return The field at the given index.
+	 * @throws ArrayIndexOutOfBoundsException if the given index is not valid for the fields of this log.
+	 */
+	Field<?> getField(final int index) {
+		return fields[index];
+	}
+
 	/** The thread-safe map of directives to be added when directives are written. */
 	private final Map<String, String> directiveMap = new ConcurrentHashMap<String, String>();
 
@@ -93,6 +128,45 @@ public String setDirective(final String name, final String value) {
 		return putRemoveNull(directiveMap, name, value); //set the value or remove the key, depending on the value
 	}
 
+	/** The cache of encoded header string values keyed to their raw values, or <code>null</code> if header values should not be cached when formatting. */
+	private volatile ClockCache<String, char[]> encodedHeaderValueCache = null;
+
+	/** @return The cache of encoded header string values keyed to their raw values, or <code>null</code> if header values are not cached when formatting. */
+	public ClockCache<String, char[]> getEncodedHeaderValueCache() {
+		return encodedHeaderValueCache;
+	}
+
+	/**
+	 * Sets the cache used when formatting the values of {@link FieldType#STRING} header fields such as {@link Field#CLIENT_SERVER_USER_AGENT_HEADER_FIELD}, which
+	 * tend to repeat across entries. Each raw value is encoded only once for as long as it remains in the cache. Cookie headers are never cached; see
+	 * {@link #isCachedHeaderField(Field)}. The cache is used both by {@link #formatEntry(StringBuilder, Entry)} and by any {@link EntryRingBuffer} of this log.
+	 * The cache may be shared among logs. The cached arrays must not be modified.
+	 * @param encodedHeaderValueCache The cache of encoded header string values keyed to their raw values, or <code>null</code> if header values should not be
+	 *          cached.
+	 */
+	public void setEncodedHeaderValueCache(final ClockCache<String, char[]> encodedHeaderValueCache) {
+		this.encodedHeaderValueCache = encodedHeaderValueCache;
+	}
+
+	/** The cache of decoded header string values keyed to their encoded values, or <code>null</code> if header values should not be cached when parsing. */
+	private volatile ClockCache<String, String> decodedHeaderValueCache = null;
+
+	/** @return The cache of decoded header string values keyed to their encoded values, or <code>null</code> if header values are not cached when parsing. */
+	public ClockCache<String, String> getDecodedHeaderValueCache() {
+		return decodedHeaderValueCache;
+	}
+
+	/**
+	 * Sets the cache used when parsing the values of {@link FieldType#STRING} header fields. Equal values parsed from different entries then share a single
+	 * string instance for as long as the value remains in the cache, rather than each entry holding its own duplicate. Cookie headers are never cached; see
+	 * {@link #isCachedHeaderField(Field)}. The cache may be shared among logs.
+	 * @param decodedHeaderValueCache The cache of decoded header string values keyed to their encoded values, or <code>null</code> if header values should not
+	 *          be cached.
+	 */
+	public void setDecodedHeaderValueCache(final ClockCache<String, String> decodedHeaderValueCache) {
+		this.decodedHeaderValueCache = decodedHeaderValueCache;
+	}
+
 	/**
 	 * Fields constructor.
 	 * @param fields The fields to use for each log entry.
@@ -100,6 +174,11 @@ public String setDirective(final String name, final String value) {
 	 */
 	public ELFF(final Field<?>... fields) {
 		this.fields = requireNonNull(fields, "Fields cannot be null.").clone(); //store a copy of the fields so that they can't be modified later by the caller
+		final Map<Field<?>, Integer> fieldIndexMap = new HashMap<Field<?>, Integer>(this.fields.length * 2);
+		for(int i = this.fields.length - 1; i >= 0; --i) { //index the fields in reverse so that the first occurrence of any duplicated field wins
+			fieldIndexMap.put(this.fields[i], Integer.valueOf(i));
+		}
+		this.fieldIndexMap = fieldIndexMap;
 	}
 
 	/**
@@ -126,18 +205,7 @@ public String serializeDirectives(final NameValuePair<String, String>... directi
 		final StringBuilder fieldsStringBuilder = new StringBuilder(); //create a new string builder for formatting the fields specification
 		if(fields.length > 0) { //if there are fields
 			for(final Field<?> field : fields) { //for each field in the log
-				final String identifier = field.getIdentifier(); //get the field's identifier
-				final FieldIdentifierPrefix prefix = field.getPrefix(); //get the field's prefix
-				if(prefix != null) { //if there is a prefix
-					fieldsStringBuilder.append(prefix.getID()); //append the prefix ID
-					if(field.isHeader()) { //if this is a header field
-						fieldsStringBuilder.append('(').append(identifier).append(')'); //prefix(identifier)
-					} else { //if this is not a header field
-						fieldsStringBuilder.append('-').append(identifier); //prefix-identifier						
-					}
-				} else { //if there is no prefix
-					fieldsStringBuilder.append(identifier); //identifier
-				}
+				formatFieldIdentifier(fieldsStringBuilder, field); //format the field identifier
 				fieldsStringBuilder.append(' '); //separate the field identifiers
 			}
 			fieldsStringBuilder.deleteCharAt(fieldsStringBuilder.length() - 1); //remove the last space
@@ -146,6 +214,29 @@ public String serializeDirectives(final NameValuePair<String, String>... directi
 		return directiveStringBuilder.toString(); //return the string we constructed
 	}
 
+	/**
+	 * Formats a field identifier as used in the {@value #FIELDS_DIRECTIVE} directive, in the form <code><var>identifier</var></code>,
+	 * <code><var>prefix</var>-<var>identifier</var></code>, or <code><var>prefix</var>(<var>header</var>)</code>.
+	 * @param stringBuilder The string builder for formatting the field identifier.
+	 * @param fieldIdentifier The field identifier to format.
+	 * @return The string builder with the new formatted content.
+	 */
+	public static StringBuilder formatFieldIdentifier(final StringBuilder stringBuilder, final FieldIdentifier fieldIdentifier) {
+		final String identifier = fieldIdentifier.getIdentifier(); //get the field's identifier
+		final FieldIdentifierPrefix prefix = fieldIdentifier.getPrefix(); //get the field's prefix
+		if(prefix != null) { //if there is a prefix
+			stringBuilder.append(prefix.getID()); //append the prefix ID
+			if(fieldIdentifier.isHeader()) { //if this is a header field
+				stringBuilder.append('(').append(identifier).append(')'); //prefix(identifier)
+			} else { //if this is not a header field
+				stringBuilder.append('-').append(identifier); //prefix-identifier
+			}
+		} else { //if there is no prefix
+			stringBuilder.append(identifier); //identifier
+		}
+		return stringBuilder;
+	}
+
 	/**
 	 * Creates a string representation of a directive. The serialization of the directive includes the ending newline character.
 	 * @param name The name of the directive.
@@ -186,9 +277,10 @@ public String serializeEntry(final Entry entry) throws IOException {
 	 * @return The string builder with the new formatted content.
 	 * @throws ClassCastException if the given value is not compatible with the field's type
 	 */
+	@SuppressWarnings("unchecked")
 	public StringBuilder formatEntry(final StringBuilder stringBuilder, final Entry entry) {
 		for(final Field<?> field : fields) { //for each field in the log
-			formatFieldValue(stringBuilder, entry, field); //format this field's value
+			formatCachedFieldValue(stringBuilder, (Field<Object>)field, entry.getFieldValue(field)); //format this field's value
 			stringBuilder.append(' '); //separate the field values
 		}
 		final int untrimmedLength = stringBuilder.length(); //find out the length before trimming
@@ -199,6 +291,57 @@ public StringBuilder formatEntry(final StringBuilder stringBuilder, final Entry
 		return stringBuilder; //return the string builder used
 	}
 
+	/** The function for encoding a string into characters to be cached. */
+	private static final Function<String, char[]> ENCODE_STRING_TO_CHARS = new Function<String, char[]>() {
+		@Override
+		public char[] apply(final String string) {
+			return encodeString(string).toCharArray();
+		}
+	};
+
+	/** The function for decoding an encoded string to be cached. */
+	private static final Function<String, String> DECODE_STRING = new Function<String, String>() {
+		@Override
+		public String apply(final String string) {
+			return decodeString(string, 0, string.length());
+		}
+	};
+
+	/**
+	 * Determines whether values of the given field are looked up in the header value caches, if any. Cookie headers are excluded, as their values are nearly
+	 * unique, so that caching them would only evict values that do repeat, and they may hold credentials that should not be retained.
+	 * @param field The field to check.
+	 * @return <code>true</code> if the field is a {@link FieldType#STRING} header field other than a cookie header.
+	 * @see #getEncodedHeaderValueCache()
+	 * @see #getDecodedHeaderValueCache()
+	 */
+	static boolean isCachedHeaderField(final Field<?> field) {
+		if(!field.isHeader() || field.getType() != FieldType.STRING) {
+			return false;
+		}
+		final String identifier = field.getIdentifier();
+		return !identifier.equalsIgnoreCase("Cookie") && !identifier.equalsIgnoreCase("Set-Cookie");
+	}
+
+	/**
+	 * Formats a field value, using the encoded header value cache of this log, if any, for fields whose values are cached.
+	 * @param <T> The type of value for the field.
+	 * @param stringBuilder The string builder for formatting the value.
+	 * @param field The field with which the value is associated.
+	 * @param value The value to format, or <code>null</code> if this field has no value in the current entry.
+	 * @return The string builder with the new formatted content.
+	 * @throws ClassCastException if the given value is not compatible with the field's type
+	 * @see #formatFieldValue(StringBuilder, Field, Object)
+	 * @see #getEncodedHeaderValueCache()
+	 */
+	<T> StringBuilder formatCachedFieldValue(final StringBuilder stringBuilder, final Field<T> field, final T value) {
+		final ClockCache<String, char[]> encodedHeaderValueCache = this.encodedHeaderValueCache;
+		if(value != null && encodedHeaderValueCache != null && isCachedHeaderField(field) && !((String)value).isEmpty()) { //if we should look up this value in the cache
+			return stringBuilder.append(encodedHeaderValueCache.get((String)value, ENCODE_STRING_TO_CHARS));
+		}
+		return formatFieldValue(stringBuilder, field, value);
+	}
+
 	/**
 	 * Formats a field value of an entry.
 	 * @param <T> The type of value for the field.
@@ -232,6 +375,14 @@ public static <T> StringBuilder formatFieldValue(final StringBuilder stringBuild
 	 * <dt>{@link FieldType#URI}</dt>
 	 * <dd>{@link URI}</dd>
 	 * </dl>
+	 * <p>
+	 * A value that formats to no characters at all, such as an empty string, is formatted as {@value #NULL_FIELD_VALUE}, as an empty field value could not be
+	 * distinguished from the separators around it; such a value is therefore parsed as <code>null</code>.
+	 * </p>
+	 * <p>
+	 * A {@link FieldType#FIXED} value is formatted as decimal digits with an optional fraction, without an exponent. As such a value cannot represent
+	 * {@link Double#NaN} or an infinity, these are formatted as {@value #NULL_FIELD_VALUE}.
+	 * </p>
 	 * @param <T> The type of value to write.
 	 * @param stringBuilder The string builder for formatting the value.
 	 * @param field The field with which the value is associated.
@@ -240,11 +391,22 @@ public static <T> StringBuilder formatFieldValue(final StringBuilder stringBuild
 	 * @throws ClassCastException if the given value is not compatible with the field's type
 	 */
 	public static <T> StringBuilder formatFieldValue(final StringBuilder stringBuilder, final Field<T> field, final T value) {
+		final int start = stringBuilder.length();
 		if(value != null) { //if there is a value
 			final FieldType fieldType = field.getType(); //get the field type
 			switch(fieldType) { //see which field type we're using
-				case FIXED:
-					stringBuilder.append(Double.toString(((Number)value).doubleValue())); //write the double value
+				case FIXED: {
+					final double doubleValue = ((Number)value).doubleValue();
+					if(Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) { //a fixed value cannot represent special values; write them as null
+						break;
+					}
+					final String string = Double.toString(doubleValue); //write the double value
+					if(string.indexOf('E') >= 0) { //expand any exponent, as a fixed value is only digits with an optional fraction
+						stringBuilder.append(new BigDecimal(string).toPlainString());
+					} else {
+						stringBuilder.append(string);
+					}
+				}
 					break;
 				case INTEGER:
 					stringBuilder.append(Integer.toString(((Number)value).intValue())); //write the integer value
@@ -252,17 +414,11 @@ public static <T> StringBuilder formatFieldValue(final StringBuilder stringBuild
 				case URI:
 					stringBuilder.append(((URI)value).toString()); //write the URI value
 					break;
-				case DATE: {
-					final DateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT_PATTERN); //create a date format object
-					dateFormat.setTimeZone(TimeZone.getTimeZone(GMT_ID)); //switch to the GMT time zone
-					stringBuilder.append(dateFormat.format((Date)value)); //convert to a date and format to the writer
-				}
+				case DATE:
+					formatDate(stringBuilder, ((Date)value).getTime());
 					break;
-				case TIME: {
-					final DateFormat timeFormat = new SimpleDateFormat(TIME_FORMAT_PATTERN); //create a time format object
-					timeFormat.setTimeZone(TimeZone.getTimeZone(GMT_ID)); //switch to the GMT time zone
-					stringBuilder.append(timeFormat.format((Date)value)); //convert to a date and format to the writer
-				}
+				case TIME:
+					formatTime(stringBuilder, ((Date)value).getTime());
 					break;
 				case STRING:
 					stringBuilder.append(encodeString((String)value));
@@ -273,12 +429,398 @@ public static <T> StringBuilder formatFieldValue(final StringBuilder stringBuild
 				default:
 					throw new AssertionError("Unrecognized field type: " + fieldType);
 			}
-		} else { //if the value is null
+		}
+		if(stringBuilder.length() == start) { //if the value is null or empty
 			stringBuilder.append(NULL_FIELD_VALUE); //write the string for a null value
 		}
 		return stringBuilder; //return the string builder with the formatted content
 	}
 
+	/**
+	 * Parses a single line of a log into an entry. The line is split into field values, but no field value is decoded until it is requested from the returned
+	 * entry; each decoded value is then cached by the entry. Consumers that only read a few of the fields of each entry therefore only pay for decoding those
+	 * fields. Any trailing end-of-line characters are ignored.
+	 * <p>
+	 * Because the returned entry refers to the given character sequence, the character sequence must not be modified while the entry is in use.
+	 * </p>
+	 * @param line The line containing the field values of an entry.
+	 * @return An entry that decodes its field values from the given line on demand.
+	 * @throws NullPointerException if the given line is <code>null</code>.
+	 * @throws ParseException if the number of field values in the line does not match the number of fields of this log.
+	 * @see LazyEntry
+	 */
+	public Entry parseEntry(final CharSequence line) throws ParseException {
+		int end = line.length();
+		while(end > 0 && (line.charAt(end - 1) == '\n' || line.charAt(end - 1) == '\r')) { //ignore any end-of-line characters
+			--end;
+		}
+		final int fieldCount = fields.length;
+		final int[] fieldOffsets = new int[fieldCount * 2]; //the start and end of each field value
+		int fieldIndex = 0;
+		int index = 0;
+		while(true) {
+			while(index < end && isFieldSeparator(line.charAt(index))) { //skip the separator between field values
+				++index;
+			}
+			if(index == end) { //if there are no more field values
+				break;
+			}
+			if(fieldIndex == fieldCount) { //if there are more values than fields
+				throw new ParseException("Entry has more than " + fieldCount + " field values.", index);
+			}
+			fieldOffsets[fieldIndex * 2] = index; //mark the start of the field value
+			while(index < end && !isFieldSeparator(line.charAt(index))) { //skip the field value
+				++index;
+			}
+			fieldOffsets[fieldIndex * 2 + 1] = index; //mark the end of the field value
+			++fieldIndex;
+		}
+		if(fieldIndex != fieldCount) { //if there were not enough values
+			throw new ParseException("Entry has " + fieldIndex + " field values; expected " + fieldCount + ".", index);
+		}
+		return new LazyEntry(this, line, fieldOffsets);
+	}
+
+	/**
+	 * Determines whether the given character separates field values of an entry.
+	 * @param c The character to check.
+	 * @return <code>true</code> if the character is a field value separator.
+	 */
+	static boolean isFieldSeparator(final char c) {
+		return c == ' ' || c == '\t';
+	}
+
+	/**
+	 * Parses a field value. This is the reverse of {@link #formatFieldValue(StringBuilder, Field, Object)}, and produces the Java types documented there; in
+	 * particular, {@link FieldType#FIXED} values are parsed as {@link Double} and {@link FieldType#INTEGER} values are parsed as {@link Integer}.
+	 * @param <T> The type of value for the field.
+	 * @param field The field with which the value is associated.
+	 * @param charSequence The character sequence containing the formatted value.
+	 * @param start The index of the first character of the formatted value.
+	 * @param end The index after the last character of the formatted value.
+	 * @return The parsed value, or <code>null</code> if the formatted value is {@value #NULL_FIELD_VALUE}.
+	 * @throws IllegalArgumentException if the characters do not represent a valid value for the field.
+	 * @throws ClassCastException if the field type does not produce values compatible with the field's Java type.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T parseFieldValue(final Field<T> field, final CharSequence charSequence, final int start, final int end) {
+		if(isNullFieldValue(charSequence, start, end)) { //if this is the null value
+			return null;
+		}
+		final FieldType fieldType = field.getType(); //get the field type
+		switch(fieldType) { //see which field type we're using
+			case FIXED:
+				return (T)Double.valueOf(parseFixed(charSequence, start, end));
+			case INTEGER:
+				return (T)Integer.valueOf(parseInteger(charSequence, start, end));
+			case URI: {
+				final String string = charSequence.subSequence(start, end).toString();
+				try {
+					return (T)new URI(string);
+				} catch(final URISyntaxException uriSyntaxException) {
+					throw new IllegalArgumentException("Invalid " + fieldType + " value: " + string, uriSyntaxException);
+				}
+			}
+			case DATE:
+				return (T)new Date(parseDate(charSequence, start, end));
+			case TIME:
+				return (T)new Date(parseTime(charSequence, start, end));
+			case STRING:
+				return (T)decodeString(charSequence, start, end);
+			case ADDRESS:
+				return (T)charSequence.subSequence(start, end).toString();
+			default:
+				throw new AssertionError("Unrecognized field type: " + fieldType);
+		}
+	}
+
+	/**
+	 * Parses a {@link FieldType#FIXED} value, an optional minus sign followed by decimal digits and an optional decimal point followed by decimal digits, without
+	 * creating an intermediate string for values of no more than 15 significant digits. Other values in that form are converted by
+	 * {@link Double#parseDouble(String)}; anything else, including exponents, hexadecimal values, type suffixes, and special values, is rejected.
+	 * @param charSequence The character sequence containing the formatted value.
+	 * @param start The index of the first character of the formatted value.
+	 * @param end The index after the last character of the formatted value.
+	 * @return The parsed value.
+	 * @throws IllegalArgumentException if the characters do not represent a valid fixed value.
+	 */
+	public static double parseFixed(final CharSequence charSequence, final int start, final int end) {
+		int index = start;
+		final boolean isNegative = index < end && charSequence.charAt(index) == '-';
+		if(isNegative) {
+			++index;
+		}
+		long mantissa = 0;
+		int significantDigitCount = 0;
+		int integerDigitCount = 0;
+		int fractionDigitCount = -1; //there is no fraction until we find a decimal point
+		for(; index < end; ++index) {
+			final char c = charSequence.charAt(index);
+			if(c >= '0' && c <= '9') {
+				if(fractionDigitCount < 0) {
+					++integerDigitCount;
+				}
+				if(mantissa != 0 || c != '0') { //leading zeros are not significant
+					mantissa = mantissa * 10 + (c - '0');
+					++significantDigitCount;
+				}
+				if(fractionDigitCount >= 0) {
+					++fractionDigitCount;
+				}
+			} else if(c == '.' && fractionDigitCount < 0) {
+				fractionDigitCount = 0;
+			} else {
+				throw new IllegalArgumentException("Invalid " + FieldType.FIXED + " value: " + charSequence.subSequence(start, end));
+			}
+		}
+		if(integerDigitCount == 0 || fractionDigitCount == 0) { //there must be digits before the decimal point, and after it if present
+			throw new IllegalArgumentException("Invalid " + FieldType.FIXED + " value: " + charSequence.subSequence(start, end));
+		}
+		//a mantissa under 2^53 divided by an exact power of ten gives a correctly rounded result, the same as that of the JDK
+		if(significantDigitCount <= 15 && fractionDigitCount <= 22) {
+			final double value = fractionDigitCount > 0 ? mantissa / POWERS_OF_TEN[fractionDigitCount] : mantissa;
+			return isNegative ? -value : value;
+		}
+		return Double.parseDouble(charSequence.subSequence(start, end).toString()); //the form has already been checked
+	}
+
+	/** The powers of ten that can be represented exactly as doubles. */
+	private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19,
+			1e20, 1e21, 1e22};
+
+	/**
+	 * Parses an {@link FieldType#INTEGER} value, an optional minus sign followed by decimal digits, without creating an intermediate string.
+	 * @param charSequence The character sequence containing the formatted value.
+	 * @param start The index of the first character of the formatted value.
+	 * @param end The index after the last character of the formatted value.
+	 * @return The parsed value.
+	 * @throws IllegalArgumentException if the characters do not represent a valid integer value.
+	 */
+	public static int parseInteger(final CharSequence charSequence, final int start, final int end) {
+		int index = start;
+		final boolean isNegative = index < end && charSequence.charAt(index) == '-';
+		if(isNegative) {
+			++index;
+		}
+		if(index == end || end - index > 10) { //an int has at most ten digits
+			throw new IllegalArgumentException("Invalid " + FieldType.INTEGER + " value: " + charSequence.subSequence(start, end));
+		}
+		long value = 0;
+		for(; index < end; ++index) {
+			final char c = charSequence.charAt(index);
+			if(c < '0' || c > '9') {
+				throw new IllegalArgumentException("Invalid " + FieldType.INTEGER + " value: " + charSequence.subSequence(start, end));
+			}
+			value = value * 10 + (c - '0');
+		}
+		if(isNegative) {
+			value = -value;
+		}
+		if(value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Out of range " + FieldType.INTEGER + " value: " + charSequence.subSequence(start, end));
+		}
+		return (int)value;
+	}
+
+	/**
+	 * Parses a {@link FieldType#DATE} value in the form {@value #DATE_FORMAT_PATTERN} in GMT, without creating an intermediate string or date format.
+	 * <p>
+	 * Dates are interpreted using the same calendar as {@link #formatFieldValue(StringBuilder, Field, Object)}: the Gregorian calendar from 1583 on, and the
+	 * Julian calendar before that, as with {@link GregorianCalendar}. Parsing a formatted date therefore gives the start of the day that was formatted, for any
+	 * date from year 1 through year 9999. Years before year 1 cannot be represented and are rejected, as are days that do not exist in their month, including
+	 * February 29 outside leap years and the days skipped in October 1582 by the change to the Gregorian calendar.
+	 * </p>
+	 * @param charSequence The character sequence containing the formatted value.
+	 * @param start The index of the first character of the formatted value.
+	 * @param end The index after the last character of the formatted value.
+	 * @return The number of milliseconds since January 1, 1970, 00:00:00 GMT of the start of the given date.
+	 * @throws IllegalArgumentException if the characters do not represent a valid date value.
+	 */
+	public static long parseDate(final CharSequence charSequence, final int start, final int end) {
+		if(end - start != DATE_FORMAT_PATTERN.length() || charSequence.charAt(start + 4) != '-' || charSequence.charAt(start + 7) != '-') {
+			throw new IllegalArgumentException("Invalid " + FieldType.DATE + " value: " + charSequence.subSequence(start, end));
+		}
+		final int year = parseDigits(charSequence, start, start + 4);
+		final int month = parseDigits(charSequence, start + 5, start + 7);
+		final int day = parseDigits(charSequence, start + 8, start + 10);
+		if(year < 1 || month < 1 || month > 12 || day < 1) {
+			throw new IllegalArgumentException("Invalid " + FieldType.DATE + " value: " + charSequence.subSequence(start, end));
+		}
+		final boolean isLeapYear = year % 4 == 0 && (year < GREGORIAN_START_YEAR || year % 100 != 0 || year % 400 == 0); //the Julian calendar has no exceptions
+		if(day > (month == 2 && isLeapYear ? 29 : MONTH_DAY_COUNTS[month - 1])
+				|| (year == GREGORIAN_START_YEAR - 1 && month == 10 && day > 4 && day < 15)) { //the days skipped by the Gregorian cutover never existed
+			throw new IllegalArgumentException("Invalid " + FieldType.DATE + " value: " + charSequence.subSequence(start, end));
+		}
+		if(year < GREGORIAN_START_YEAR) { //before the Gregorian calendar was in full use, defer to the same calendar used for formatting
+			final Calendar calendar = new GregorianCalendar(TimeZone.getTimeZone(GMT_ID));
+			calendar.clear();
+			calendar.set(year, month - 1, day);
+			return calendar.getTimeInMillis();
+		}
+		//calculate the days since the epoch using a year starting in March, so that the leap day comes last
+		final int marchYear = month <= 2 ? year - 1 : year;
+		final int era = marchYear / 400;
+		final int yearOfEra = marchYear - era * 400;
+		final int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		final long epochDay = era * 146097L + dayOfEra - 719468;
+		return epochDay * MILLISECONDS_PER_DAY;
+	}
+
+	/** The number of days in each month of a year that is not a leap year. */
+	private static final int[] MONTH_DAY_COUNTS = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+	/** The first year in which the Gregorian calendar is used for all dates. */
+	private static final int GREGORIAN_START_YEAR = 1583;
+
+	/** The number of milliseconds in a day. */
+	private static final long MILLISECONDS_PER_DAY = 24L * 60 * 60 * 1000;
+
+	/**
+	 * Parses a {@link FieldType#TIME} value in the form {@value #TIME_FORMAT_PATTERN} in GMT, without creating an intermediate string or date format.
+	 * @param charSequence The character sequence containing the formatted value.
+	 * @param start The index of the first character of the formatted value.
+	 * @param end The index after the last character of the formatted value.
+	 * @return The number of milliseconds since the start of the day, which is also the time on January 1, 1970 in milliseconds since the epoch.
+	 * @throws IllegalArgumentException if the characters do not represent a valid time value.
+	 */
+	public static long parseTime(final CharSequence charSequence, final int start, final int end) {
+		if(end - start != TIME_FORMAT_PATTERN.length() || charSequence.charAt(start + 2) != ':' || charSequence.charAt(start + 5) != ':'
+				|| charSequence.charAt(start + 8) != ':') {
+			throw new IllegalArgumentException("Invalid " + FieldType.TIME + " value: " + charSequence.subSequence(start, end));
+		}
+		final int hours = parseDigits(charSequence, start, start + 2);
+		final int minutes = parseDigits(charSequence, start + 3, start + 5);
+		final int seconds = parseDigits(charSequence, start + 6, start + 8);
+		final int milliseconds = parseDigits(charSequence, start + 9, start + 12);
+		if(hours < 0 || hours > 23 || minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59 || milliseconds < 0) {
+			throw new IllegalArgumentException("Invalid " + FieldType.TIME + " value: " + charSequence.subSequence(start, end));
+		}
+		return ((hours * 60L + minutes) * 60 + seconds) * 1000 + milliseconds;
+	}
+
+	/**
+	 * Parses a fixed-length sequence of decimal digits.
+	 * @param charSequence The character sequence containing the digits.
+	 * @param start The index of the first digit.
+	 * @param end The index after the last digit.
+	 * @return The value of the digits, or -1 if a character is not a decimal digit.
+	 */
+	private static int parseDigits(final CharSequence charSequence, final int start, final int end) {
+		int value = 0;
+		for(int i = start; i < end; ++i) {
+			final char c = charSequence.charAt(i);
+			if(c < '0' || c > '9') {
+				return -1;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
+	/**
+	 * Parses a field value of one of the fields of this log, using the decoded header value cache if appropriate.
+	 * @param <T> The type of value for the field.
+	 * @param field The field with which the value is associated.
+	 * @param charSequence The character sequence containing the formatted value.
+	 * @param start The index of the first character of the formatted value.
+	 * @param end The index after the last character of the formatted value.
+	 * @return The parsed value, or <code>null</code> if the formatted value is {@value #NULL_FIELD_VALUE}.
+	 * @throws IllegalArgumentException if the characters do not represent a valid value for the field.
+	 * @see #parseFieldValue(Field, CharSequence, int, int)
+	 * @see #getDecodedHeaderValueCache()
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T decodeFieldValue(final Field<T> field, final CharSequence charSequence, final int start, final int end) {
+		final ClockCache<String, String> decodedHeaderValueCache = this.decodedHeaderValueCache;
+		if(decodedHeaderValueCache != null && isCachedHeaderField(field) && !isNullFieldValue(charSequence, start, end)) {
+			return (T)decodedHeaderValueCache.get(charSequence.subSequence(start, end).toString(), DECODE_STRING);
+		}
+		return parseFieldValue(field, charSequence, start, end);
+	}
+
+	/**
+	 * Determines whether the given characters represent a null field value.
+	 * @param charSequence The character sequence containing the formatted value.
+	 * @param start The index of the first character of the formatted value.
+	 * @param end The index after the last character of the formatted value.
+	 * @return <code>true</code> if the characters are {@value #NULL_FIELD_VALUE}.
+	 */
+	static boolean isNullFieldValue(final CharSequence charSequence, final int start, final int end) {
+		return end - start == 1 && charSequence.charAt(start) == '-';
+	}
+
+	/** The first time, at the start of 1583-01-01 GMT, after which the Gregorian calendar is used for all dates. */
+	private static final long GREGORIAN_START_MILLISECONDS = -12212553600000L;
+
+	/** The first time, at the start of 10000-01-01 GMT, at which a year no longer has four digits. */
+	private static final long FIVE_DIGIT_YEAR_START_MILLISECONDS = 253402300800000L;
+
+	/**
+	 * Formats a {@link FieldType#DATE} value in the form {@value #DATE_FORMAT_PATTERN} in GMT. Times that fall within years 1583 through 9999 are formatted
+	 * directly using the Gregorian calendar, without creating a date format or looking up the GMT time zone, which would otherwise contend on the time zone lock
+	 * when many threads format entries. Other times are formatted using a {@link SimpleDateFormat}, which uses the Julian calendar before 1583.
+	 * {@link #parseDate(CharSequence, int, int)} uses the same calendars, so for years 1 through 9999 parsing the formatted date gives the start of the
+	 * formatted day.
+	 * @param stringBuilder The string builder for formatting the value.
+	 * @param time The number of milliseconds since January 1, 1970, 00:00:00 GMT.
+	 * @return The string builder with the new formatted content.
+	 * @see #parseDate(CharSequence, int, int)
+	 */
+	public static StringBuilder formatDate(final StringBuilder stringBuilder, final long time) {
+		if(time < GREGORIAN_START_MILLISECONDS || time >= FIVE_DIGIT_YEAR_START_MILLISECONDS) {
+			final DateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT_PATTERN); //create a date format object
+			dateFormat.setTimeZone(TimeZone.getTimeZone(GMT_ID)); //switch to the GMT time zone
+			return stringBuilder.append(dateFormat.format(new Date(time)));
+		}
+		//calculate the Gregorian date from the days since the epoch using a year starting in March, so that the leap day comes last
+		final long epochDay = Math.floorDiv(time, MILLISECONDS_PER_DAY);
+		final long shiftedDay = epochDay + 719468;
+		final long era = Math.floorDiv(shiftedDay, 146097);
+		final int dayOfEra = (int)(shiftedDay - era * 146097);
+		final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		final int marchMonth = (5 * dayOfYear + 2) / 153;
+		final int day = dayOfYear - (153 * marchMonth + 2) / 5 + 1;
+		final int month = marchMonth < 10 ? marchMonth + 3 : marchMonth - 9;
+		final int year = (int)(era * 400) + yearOfEra + (month <= 2 ? 1 : 0);
+		appendDigits(stringBuilder, year, 4).append('-');
+		appendDigits(stringBuilder, month, 2).append('-');
+		return appendDigits(stringBuilder, day, 2);
+	}
+
+	/**
+	 * Formats a {@link FieldType#TIME} value in the form {@value #TIME_FORMAT_PATTERN} in GMT, without creating a date format or looking up the GMT time zone.
+	 * @param stringBuilder The string builder for formatting the value.
+	 * @param time The number of milliseconds since January 1, 1970, 00:00:00 GMT.
+	 * @return The string builder with the new formatted content.
+	 * @see #parseTime(CharSequence, int, int)
+	 */
+	public static StringBuilder formatTime(final StringBuilder stringBuilder, final long time) {
+		final int millisecondOfDay = (int)Math.floorMod(time, MILLISECONDS_PER_DAY);
+		appendDigits(stringBuilder, millisecondOfDay / (60 * 60 * 1000), 2).append(':');
+		appendDigits(stringBuilder, millisecondOfDay / (60 * 1000) % 60, 2).append(':');
+		appendDigits(stringBuilder, millisecondOfDay / 1000 % 60, 2).append(':');
+		return appendDigits(stringBuilder, millisecondOfDay % 1000, 3);
+	}
+
+	/**
+	 * Appends a non-negative value as a fixed number of decimal digits, padded with leading zeros.
+	 * @param stringBuilder The string builder to which the digits should be appended.
+	 * @param value The value to append, which must fit within the given number of digits.
+	 * @param digitCount The number of digits to append.
+	 * @return The string builder with the new content.
+	 */
+	private static StringBuilder appendDigits(final StringBuilder stringBuilder, int value, final int digitCount) {
+		final int length = stringBuilder.length() + digitCount;
+		stringBuilder.setLength(length);
+		for(int i = length - 1; i >= length - digitCount; --i) {
+			stringBuilder.setCharAt(i, (char)('0' + value % 10));
+			value /= 10;
+		}
+		return stringBuilder;
+	}
+
 	/**
 	 * Encodes a string for storing as a field value. Every instance of a quote character ('"') is replaced with two quotes.
 	 * @param string The string to encode.
@@ -293,6 +835,34 @@ public static final String encodeString(final String string) {
 		return stringBuilder.toString(); //return the encoded string
 	}
 
+	/**
+	 * Decodes a string stored as a field value. This is the reverse of {@link #encodeString(String)}: every instance of two plusses is replaced with a single
+	 * plus, and every remaining plus is replaced with a space. The encoding is ambiguous where a space is followed by another space or by a plus, so such
+	 * strings do not survive encoding and decoding: two spaces are encoded as two plusses, which decode to <code>"+"</code>, and a space followed by a plus is
+	 * decoded as a plus followed by a space.
+	 * @param charSequence The character sequence containing the encoded string.
+	 * @param start The index of the first character of the encoded string.
+	 * @param end The index after the last character of the encoded string.
+	 * @return The decoded string.
+	 */
+	public static String decodeString(final CharSequence charSequence, final int start, final int end) {
+		final StringBuilder stringBuilder = new StringBuilder(end - start);
+		for(int i = start; i < end; ++i) {
+			final char c = charSequence.charAt(i);
+			if(c == '+') {
+				if(i + 1 < end && charSequence.charAt(i + 1) == '+') { //++
+					stringBuilder.append('+');
+					++i; //skip the second plus
+				} else { //+
+					stringBuilder.append(' ');
+				}
+			} else {
+				stringBuilder.append(c);
+			}
+		}
+		return stringBuilder.toString();
+	}
+
 	/**
 	 * Constructs a query name/values pair in the form <code><var>name</var>=<var>value1</var>;<var>value2</var>...</code>. Multiple values will be separated by
 	 * the ';' character.
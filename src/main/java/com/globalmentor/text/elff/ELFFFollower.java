@@ -0,0 +1,526 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.text.elff;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.ParseException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.*;
+
+/**
+ * Follows a live log file in the Extended Log File Format (ELFF), reading entries as they are appended.
+ * <p>
+ * Only newly appended bytes are read, using positional reads of a {@link FileChannel}. A trailing line without an ending newline is held back until it is
+ * complete. When there is nothing new to read, the follower waits for a change to be reported by a {@link WatchService} on the file's directory, but never longer
+ * than the poll interval, so that changes are noticed even where the watch service is slow or unavailable.
+ * </p>
+ * <p>
+ * The file is considered rotated if the file at the path has a different file key (such as an inode) from the file being read. A writer may still complete
+ * lines in the old file after it has been renamed, so complete lines continue to be read from the old file until it has not grown for the rotation grace
+ * period, and only then is the new file read from its beginning. A trailing fragment without an ending newline left in the old file at that point cannot be
+ * known to be a complete line, as a line cut inside a value may still have the expected number of values, so it is dropped and counted in
+ * {@link #getDroppedFragmentCount()}.
+ * </p>
+ * <p>
+ * The file is considered truncated if it has become smaller than the position already read. Because nothing read from before the truncation can be trusted
+ * to be complete, any trailing fragment is dropped and counted, and the file is read again from its beginning.
+ * </p>
+ * <p>
+ * New {@value ELFF#FIELDS_DIRECTIVE} directives, whether in a new file or in the middle of the current one, change the layout of the entries that follow.
+ * </p>
+ * <p>
+ * If a checkpoint file is given, the position after the last entry returned is saved by {@link #checkpoint()} and on {@link #close()}, along with the file key
+ * and current {@value ELFF#FIELDS_DIRECTIVE} directive. A new follower for the same checkpoint file resumes from that position without rereading the file, as
+ * long as the file has not been rotated in the meantime.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class ELFFFollower implements Closeable {
+
+	/** The default maximum time in milliseconds to wait before checking the file for changes. */
+	public static final long DEFAULT_POLL_INTERVAL_MILLIS = 50;
+
+	/** The default time in milliseconds a rotated file must go without growing before reading moves to the new file. */
+	public static final long DEFAULT_ROTATION_GRACE_PERIOD_MILLIS = 1000;
+
+	/** The checkpoint property for the position after the last entry returned. */
+	private static final String POSITION_CHECKPOINT_PROPERTY = "position";
+
+	/** The checkpoint property for the file key of the file being read. */
+	private static final String FILE_KEY_CHECKPOINT_PROPERTY = "fileKey";
+
+	/** The checkpoint property for the value of the current {@value ELFF#FIELDS_DIRECTIVE} directive. */
+	private static final String FIELDS_CHECKPOINT_PROPERTY = "fields";
+
+	/** The initial size of the read buffer in bytes. */
+	private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+	/** The path of the log file to follow. */
+	private final Path path;
+
+	/** @return The path of the log file being followed. */
+	public Path getPath() {
+		return path;
+	}
+
+	/** The path of the checkpoint file, or <code>null</code> if no checkpoints are kept. */
+	private final Path checkpointPath;
+
+	/** The maximum time in nanoseconds to wait before checking the file for changes. */
+	private final long pollIntervalNanos;
+
+	/** The time in nanoseconds a rotated file must go without growing before reading moves to the new file. */
+	private final long rotationGracePeriodNanos;
+
+	/** The parser of the lines of the log. */
+	private final ELFFParser parser;
+
+	/** @return The parser of the lines of the log, which provides the directives encountered and the current layout of entries. */
+	public ELFFParser getParser() {
+		return parser;
+	}
+
+	/** The watch service notifying of changes to the file's directory, or <code>null</code> if changes are only noticed by polling. */
+	private final WatchService watchService;
+
+	/** The channel of the file being read, or <code>null</code> if the file has not yet been opened. */
+	private FileChannel channel = null;
+
+	/** The file key of the file being read, or <code>null</code> if the file has not been opened or its file system provides no file keys. */
+	private Object fileKey = null;
+
+	/** The bytes read from the file but not yet consumed as lines. */
+	private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+
+	/** The index in the buffer of the first byte not yet consumed. */
+	private int bufferStart = 0;
+
+	/** The index in the buffer after the last byte read. */
+	private int bufferEnd = 0;
+
+	/** The position in the file of the first byte in the buffer. */
+	private long bufferPosition = 0;
+
+	/** Whether the file being read has been rotated, so that the rest of it is being read before moving to the new file. */
+	private boolean rotated = false;
+
+	/** The {@link System#nanoTime()} at which the rotated file was last found to have grown, or at which the rotation was detected. */
+	private long rotatedGrowthNanos = 0;
+
+	/** The number of trailing fragments dropped. */
+	private long droppedFragmentCount = 0;
+
+	/**
+	 * Returns the number of trailing fragments without an ending newline dropped because the file was truncated, or because a rotated file stopped growing.
+	 * @return The number of trailing fragments dropped.
+	 */
+	public long getDroppedFragmentCount() {
+		return droppedFragmentCount;
+	}
+
+	/**
+	 * Path constructor with no checkpoints and the default poll interval.
+	 * @param path The path of the log file to follow, which need not yet exist.
+	 * @throws NullPointerException if the given path is <code>null</code>.
+	 * @throws IOException if there was an error opening the file.
+	 */
+	public ELFFFollower(final Path path) throws IOException {
+		this(path, null, DEFAULT_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Path, checkpoint, and poll interval constructor with the default rotation grace period. If the checkpoint file exists and refers to the file currently at
+	 * the given path, reading resumes from the saved position.
+	 * @param path The path of the log file to follow, which need not yet exist.
+	 * @param checkpointPath The path of the checkpoint file, or <code>null</code> if no checkpoints should be kept.
+	 * @param pollInterval The maximum time to wait before checking the file for changes.
+	 * @param unit The unit of the poll interval.
+	 * @throws NullPointerException if the given path and/or unit is <code>null</code>.
+	 * @throws IllegalArgumentException if the given poll interval is not positive.
+	 * @throws IOException if there was an error opening the file or reading the checkpoint.
+	 */
+	public ELFFFollower(final Path path, final Path checkpointPath, final long pollInterval, final TimeUnit unit) throws IOException {
+		this(path, checkpointPath, pollInterval, unit.convert(DEFAULT_ROTATION_GRACE_PERIOD_MILLIS, TimeUnit.MILLISECONDS), unit);
+	}
+
+	/**
+	 * Path, checkpoint, poll interval, and rotation grace period constructor. If the checkpoint file exists and refers to the file currently at the given path,
+	 * reading resumes from the saved position.
+	 * @param path The path of the log file to follow, which need not yet exist.
+	 * @param checkpointPath The path of the checkpoint file, or <code>null</code> if no checkpoints should be kept.
+	 * @param pollInterval The maximum time to wait before checking the file for changes.
+	 * @param rotationGracePeriod The time a rotated file must go without growing before reading moves to the new file.
+	 * @param unit The unit of the poll interval and rotation grace period.
+	 * @throws NullPointerException if the given path and/or unit is <code>null</code>.
+	 * @throws IllegalArgumentException if the given poll interval is not positive, or the given rotation grace period is negative.
+	 * @throws IOException if there was an error opening the file or reading the checkpoint.
+	 */
+	public ELFFFollower(final Path path, final Path checkpointPath, final long pollInterval, final long rotationGracePeriod, final TimeUnit unit)
+			throws IOException {
+		this.path = requireNonNull(path, "Path cannot be null.").toAbsolutePath();
+		this.checkpointPath = checkpointPath;
+		if(pollInterval <= 0) {
+			throw new IllegalArgumentException("Invalid poll interval: " + pollInterval);
+		}
+		if(rotationGracePeriod < 0) {
+			throw new IllegalArgumentException("Invalid rotation grace period: " + rotationGracePeriod);
+		}
+		pollIntervalNanos = unit.toNanos(pollInterval);
+		rotationGracePeriodNanos = unit.toNanos(rotationGracePeriod);
+		parser = new ELFFParser();
+		watchService = createWatchService(this.path);
+		try {
+			if(open()) {
+				restoreCheckpoint();
+			}
+		} catch(final IOException | RuntimeException exception) {
+			closeQuietly();
+			throw exception;
+		}
+	}
+
+	/**
+	 * Reads the next entry appended to the log, waiting up to the given time for one to become available.
+	 * @param timeout The maximum time to wait for an entry.
+	 * @param unit The unit of the timeout.
+	 * @return The next entry, or <code>null</code> if no entry became available within the given time.
+	 * @throws IOException if there was an error reading the file or a line could not be parsed.
+	 * @throws InterruptedException if the thread was interrupted while waiting.
+	 */
+	public Entry readEntry(final long timeout, final TimeUnit unit) throws IOException, InterruptedException {
+		final long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while(true) {
+			String line;
+			while((line = readLine()) != null) {
+				final Entry entry = parseLine(line);
+				if(entry != null) {
+					return entry;
+				}
+			}
+			long waitNanos = pollIntervalNanos;
+			if(rotated) { //keep reading the old file until it stops growing
+				final long quietNanos = System.nanoTime() - rotatedGrowthNanos;
+				if(quietNanos >= rotationGracePeriodNanos) {
+					if(fill()) { //check once more before giving up on the old file
+						continue;
+					}
+					if(bufferStart < bufferEnd) { //the old file stopped growing without completing its last line
+						++droppedFragmentCount;
+					}
+					reset();
+					continue;
+				}
+				waitNanos = Math.min(waitNanos, rotationGracePeriodNanos - quietNanos);
+			} else if(checkRotation()) {
+				continue;
+			}
+			final long remainingNanos = deadline - System.nanoTime();
+			if(remainingNanos <= 0) {
+				return null;
+			}
+			await(Math.min(remainingNanos, waitNanos));
+		}
+	}
+
+	/**
+	 * Saves the position after the last entry returned, so that a new follower using the same checkpoint file resumes from there. The checkpoint file is
+	 * replaced atomically where supported. If no checkpoint file was given, this method does nothing.
+	 * @throws IOException if there was an error writing the checkpoint.
+	 */
+	public void checkpoint() throws IOException {
+		if(checkpointPath == null) {
+			return;
+		}
+		final Properties properties = new Properties();
+		properties.setProperty(POSITION_CHECKPOINT_PROPERTY, Long.toString(bufferPosition + bufferStart));
+		if(fileKey != null) {
+			properties.setProperty(FILE_KEY_CHECKPOINT_PROPERTY, fileKey.toString());
+		}
+		final String fields = parser.getDirective(ELFF.FIELDS_DIRECTIVE);
+		if(fields != null) {
+			properties.setProperty(FIELDS_CHECKPOINT_PROPERTY, fields);
+		}
+		final Path tempPath = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+		try (final OutputStream outputStream = Files.newOutputStream(tempPath)) {
+			properties.store(outputStream, "ELFF follower checkpoint for " + path);
+		}
+		try {
+			Files.move(tempPath, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch(final AtomicMoveNotSupportedException atomicMoveNotSupportedException) {
+			Files.move(tempPath, checkpointPath, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Saves a checkpoint, if a checkpoint file was given, and stops following the file.
+	 * @throws IOException if there was an error writing the checkpoint or closing the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			checkpoint();
+		} finally {
+			closeQuietly();
+		}
+	}
+
+	/** Closes the file and the watch service, ignoring any errors. */
+	private void closeQuietly() {
+		try {
+			if(channel != null) {
+				channel.close();
+			}
+		} catch(final IOException ioException) {
+			//ignore errors closing a file opened only for reading
+		}
+		try {
+			if(watchService != null) {
+				watchService.close();
+			}
+		} catch(final IOException ioException) {
+			//ignore errors closing the watch service
+		}
+	}
+
+	/**
+	 * Parses a line of the log.
+	 * @param line The line to parse.
+	 * @return The entry the line represents, or <code>null</code> if the line is not an entry.
+	 * @throws IOException if the line could not be parsed.
+	 */
+	private Entry parseLine(final String line) throws IOException {
+		try {
+			return parser.parseLine(line);
+		} catch(final ParseException parseException) {
+			throw new IOException("Error parsing " + path + " line: " + parseException.getMessage(), parseException);
+		}
+	}
+
+	/**
+	 * Reads the next line from the buffer, reading more of the file into the buffer as needed.
+	 * @return The next line, without its ending newline, or <code>null</code> if no complete line is available.
+	 * @throws IOException if there was an error reading the file.
+	 */
+	private String readLine() throws IOException {
+		int scanIndex = bufferStart;
+		while(true) {
+			for(; scanIndex < bufferEnd; ++scanIndex) {
+				if(buffer[scanIndex] == '\n') {
+					int lineEnd = scanIndex;
+					if(lineEnd > bufferStart && buffer[lineEnd - 1] == '\r') {
+						--lineEnd;
+					}
+					final String line = new String(buffer, bufferStart, lineEnd - bufferStart, StandardCharsets.UTF_8);
+					bufferStart = scanIndex + 1;
+					return line;
+				}
+			}
+			final int scannedCount = scanIndex - bufferStart; //filling may compact the buffer
+			if(!fill()) { //if there is nothing more to read for now
+				return null;
+			}
+			scanIndex = bufferStart + scannedCount; //continue scanning after the bytes already scanned
+		}
+	}
+
+	/**
+	 * Reads newly appended bytes of the file into the buffer, compacting or growing the buffer as needed.
+	 * @return <code>true</code> if any bytes were read.
+	 * @throws IOException if there was an error reading the file.
+	 */
+	private boolean fill() throws IOException {
+		if(channel == null && !open()) {
+			return false;
+		}
+		if(bufferStart > 0) { //discard consumed bytes
+			System.arraycopy(buffer, bufferStart, buffer, 0, bufferEnd - bufferStart);
+			bufferPosition += bufferStart;
+			bufferEnd -= bufferStart;
+			bufferStart = 0;
+		}
+		if(bufferEnd == buffer.length) { //make room for a long line
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+		}
+		final int count = channel.read(ByteBuffer.wrap(buffer, bufferEnd, buffer.length - bufferEnd), bufferPosition + bufferEnd);
+		if(count <= 0) {
+			return false;
+		}
+		bufferEnd += count;
+		if(rotated) {
+			rotatedGrowthNanos = System.nanoTime();
+		}
+		return true;
+	}
+
+	/**
+	 * Opens the file at the path for reading from its beginning, if it exists.
+	 * @return <code>true</code> if the file was opened.
+	 * @throws IOException if there was an error opening the file.
+	 */
+	private boolean open() throws IOException {
+		try {
+			channel = FileChannel.open(path, StandardOpenOption.READ);
+		} catch(final NoSuchFileException noSuchFileException) {
+			return false;
+		}
+		fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+		bufferPosition = 0;
+		bufferStart = 0;
+		bufferEnd = 0;
+		return true;
+	}
+
+	/**
+	 * Closes the current file so that the file now at the path will be opened from its beginning.
+	 * @throws IOException if there was an error closing the file.
+	 */
+	private void reset() throws IOException {
+		if(channel != null) {
+			channel.close();
+			channel = null;
+		}
+		fileKey = null;
+		rotated = false;
+		bufferPosition = 0;
+		bufferStart = 0;
+		bufferEnd = 0;
+	}
+
+	/**
+	 * Determines whether the file being read has been rotated or truncated, now that no more bytes can be read from it. If the file was rotated, it is marked as
+	 * rotated so that the rest of it will be read. If the file was truncated, any trailing fragment is dropped and the file will be read from its beginning.
+	 * @return <code>true</code> if the file at the path is no longer the file being read, or is smaller than the position already read.
+	 * @throws IOException if there was an error checking the file.
+	 */
+	private boolean checkRotation() throws IOException {
+		if(channel == null) {
+			return false;
+		}
+		final BasicFileAttributes attributes;
+		try {
+			attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		} catch(final NoSuchFileException noSuchFileException) {
+			return false; //keep reading the old file until the new one appears
+		}
+		final Object currentFileKey = attributes.fileKey();
+		if(fileKey != null && currentFileKey != null && !fileKey.equals(currentFileKey)) {
+			rotated = true;
+			rotatedGrowthNanos = System.nanoTime();
+			return true;
+		}
+		if(attributes.size() < bufferPosition + bufferEnd) { //truncated in place; nothing read from before the truncation can be trusted to be complete
+			if(bufferStart < bufferEnd) {
+				++droppedFragmentCount;
+			}
+			reset();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Waits for a change in the file's directory, or until the given time has elapsed.
+	 * @param nanos The maximum time to wait in nanoseconds.
+	 * @throws InterruptedException if the thread was interrupted while waiting.
+	 */
+	private void await(final long nanos) throws InterruptedException {
+		if(watchService != null) {
+			final WatchKey watchKey;
+			try {
+				watchKey = watchService.poll(nanos, TimeUnit.NANOSECONDS);
+			} catch(final ClosedWatchServiceException closedWatchServiceException) {
+				TimeUnit.NANOSECONDS.sleep(nanos);
+				return;
+			}
+			if(watchKey != null) { //we only need to know that something changed; the file itself is checked directly
+				watchKey.pollEvents();
+				watchKey.reset();
+			}
+		} else {
+			TimeUnit.NANOSECONDS.sleep(nanos);
+		}
+	}
+
+	/**
+	 * Restores the position and current fields from the checkpoint file, if it exists and refers to the file being read.
+	 * @throws IOException if there was an error reading the checkpoint.
+	 */
+	private void restoreCheckpoint() throws IOException {
+		if(checkpointPath == null || !Files.exists(checkpointPath)) {
+			return;
+		}
+		final Properties properties = new Properties();
+		try (final InputStream inputStream = Files.newInputStream(checkpointPath)) {
+			properties.load(inputStream);
+		}
+		final String checkpointFileKey = properties.getProperty(FILE_KEY_CHECKPOINT_PROPERTY);
+		if(checkpointFileKey != null && fileKey != null && !checkpointFileKey.equals(fileKey.toString())) { //the file was rotated since the checkpoint
+			return;
+		}
+		final long position;
+		try {
+			position = Long.parseLong(properties.getProperty(POSITION_CHECKPOINT_PROPERTY, "0"));
+		} catch(final NumberFormatException numberFormatException) {
+			throw new IOException("Invalid checkpoint position in " + checkpointPath + ".", numberFormatException);
+		}
+		if(position < 0 || position > channel.size()) { //the file was truncated since the checkpoint
+			return;
+		}
+		final String fields = properties.getProperty(FIELDS_CHECKPOINT_PROPERTY);
+		if(fields != null) {
+			try {
+				parser.parseLine("#" + ELFF.FIELDS_DIRECTIVE + ": " + fields);
+			} catch(final ParseException parseException) {
+				throw new IOException("Invalid checkpoint fields in " + checkpointPath + ".", parseException);
+			}
+		}
+		bufferPosition = position;
+	}
+
+	/**
+	 * Creates a watch service notifying of changes to the directory of the given file.
+	 * @param path The path of the file.
+	 * @return A new watch service, or <code>null</code> if changes cannot be watched.
+	 */
+	private static WatchService createWatchService(final Path path) {
+		final Path directory = path.getParent();
+		if(directory == null) {
+			return null;
+		}
+		try {
+			final WatchService watchService = directory.getFileSystem().newWatchService();
+			try {
+				directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+			} catch(final IOException | RuntimeException exception) {
+				watchService.close();
+				return null;
+			}
+			return watchService;
+		} catch(final IOException | UnsupportedOperationException exception) {
+			return null; //fall back to polling
+		}
+	}
+}
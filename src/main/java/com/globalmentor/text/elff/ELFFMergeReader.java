@@ -0,0 +1,363 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.text.elff;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+import static java.util.Objects.*;
+
+/**
+ * Reads the entries of several logs in the Extended Log File Format (ELFF), such as rotated or per-node log files, as a single stream ordered by
+ * {@link Field#DATE_FIELD} and {@link Field#TIME_FIELD}.
+ * <p>
+ * The entries of each file are expected to already be in time order. A cursor is kept for each file, and the cursors are kept in a heap ordered by the time of
+ * each cursor's current entry, so that each entry is produced by comparing only the current entries of the files. Each file is read through a buffer of bounded
+ * size. Files with names ending in <code>.gz</code> are decompressed using GZIP.
+ * </p>
+ * <p>
+ * The fields of the files' {@value ELFF#FIELDS_DIRECTIVE} directives are reconciled into a single union schema available via {@link #getELFF()}; an entry
+ * returns <code>null</code> for any field of the union schema that is not present in its own section of its file. The same field identifier is resolved to
+ * the same {@link Field} instance in every file. Each entry is decoded using the fields in effect at its position in its file, so a file may change its fields
+ * partway through; the fields of a later directive are added to the union schema no later than the first entry using them is returned.
+ * </p>
+ * <p>
+ * If a time window is given, only entries within the window are returned. A file whose {@value ELFF#START_DATE_DIRECTIVE} or {@value ELFF#END_DATE_DIRECTIVE}
+ * directive preceding its first entry shows it to lie outside the window is closed without reading beyond its first entry.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class ELFFMergeReader implements Closeable {
+
+	/** The default size, in characters, of the read-ahead buffer for each file. */
+	public static final int DEFAULT_READ_AHEAD_SIZE = 64 * 1024;
+
+	/** The reading position within a single file. */
+	private static class Cursor {
+
+		/** The reader of the file. */
+		final ELFFReader reader;
+
+		/** The order of the file among all files, used to order entries with the same time. */
+		final int order;
+
+		/** The current entry, or <code>null</code> if the end of the file has been reached. */
+		Entry entry = null;
+
+		/** The time of the current entry. */
+		long time;
+
+		/** The log with the fields of the current entry, or <code>null</code> if no entry has been read. */
+		ELFF elff = null;
+
+		/**
+		 * Constructor.
+		 * @param reader The reader of the file.
+		 * @param order The order of the file among all files.
+		 */
+		Cursor(final ELFFReader reader, final int order) {
+			this.reader = reader;
+			this.order = order;
+		}
+	}
+
+	/** The cursors with remaining entries, ordered by the time of their current entries. */
+	private final PriorityQueue<Cursor> cursorQueue = new PriorityQueue<Cursor>(11, new Comparator<Cursor>() {
+		@Override
+		public int compare(final Cursor cursor1, final Cursor cursor2) {
+			final int result = Long.compare(cursor1.time, cursor2.time);
+			return result != 0 ? result : Integer.compare(cursor1.order, cursor2.order);
+		}
+	});
+
+	/** The cursor the entry of which was last returned, which must be advanced before the next entry is read, or <code>null</code> if there is none. */
+	private Cursor returnedCursor = null;
+
+	/** The inclusive start of the time window in milliseconds. */
+	private final long windowStart;
+
+	/** The exclusive end of the time window in milliseconds. */
+	private final long windowEnd;
+
+	/** The union of the fields of all files encountered so far, in the order in which they were first encountered. */
+	private final Set<Field<?>> unionFields = new LinkedHashSet<Field<?>>();
+
+	/** The union of the fields of all files encountered so far. */
+	private ELFF elff = new ELFF();
+
+	/**
+	 * Returns a log with the union of the fields of all files, in the order in which they were first encountered. If a file changes its fields after its first
+	 * entry, a new log with the additional fields is returned once an entry of the new section has been read.
+	 * @return A log with the union of the fields of all files encountered so far.
+	 */
+	public ELFF getELFF() {
+		return elff;
+	}
+
+	/** The cache of decoded header string values used for all files, or <code>null</code> if header values should not be cached. */
+	private ClockCache<String, String> decodedHeaderValueCache = null;
+
+	/** @return The cache of decoded header string values used for all files, or <code>null</code> if header values are not cached. */
+	public ClockCache<String, String> getDecodedHeaderValueCache() {
+		return decodedHeaderValueCache;
+	}
+
+	/**
+	 * Sets the cache of decoded header string values used for all files that have not yet been completely read, so that entries of different files share
+	 * decoded header values.
+	 * @param decodedHeaderValueCache The cache of decoded header string values, or <code>null</code> if header values should not be cached.
+	 * @see ELFFParser#setDecodedHeaderValueCache(ClockCache)
+	 */
+	public void setDecodedHeaderValueCache(final ClockCache<String, String> decodedHeaderValueCache) {
+		this.decodedHeaderValueCache = decodedHeaderValueCache;
+		for(final Cursor cursor : cursorQueue) {
+			cursor.reader.getParser().setDecodedHeaderValueCache(decodedHeaderValueCache);
+		}
+		if(returnedCursor != null) {
+			returnedCursor.reader.getParser().setDecodedHeaderValueCache(decodedHeaderValueCache);
+		}
+	}
+
+	/**
+	 * Paths constructor with no time window and default read-ahead size.
+	 * @param paths The paths of the log files to read.
+	 * @throws NullPointerException if the given paths are <code>null</code>.
+	 * @throws IOException if there was an error opening or reading the files.
+	 */
+	public ELFFMergeReader(final Collection<? extends Path> paths) throws IOException {
+		this(paths, null, null, DEFAULT_READ_AHEAD_SIZE);
+	}
+
+	/**
+	 * Paths, time window, and read-ahead size constructor. Each file is opened and its directives read.
+	 * @param paths The paths of the log files to read.
+	 * @param startDate The inclusive start of the time window, or <code>null</code> if there is no lower bound.
+	 * @param endDate The exclusive end of the time window, or <code>null</code> if there is no upper bound.
+	 * @param readAheadSize The size, in characters, of the read-ahead buffer for each file.
+	 * @throws NullPointerException if the given paths are <code>null</code>.
+	 * @throws IllegalArgumentException if the given read-ahead size is not positive.
+	 * @throws IOException if there was an error opening or reading the files.
+	 */
+	public ELFFMergeReader(final Collection<? extends Path> paths, final Date startDate, final Date endDate, final int readAheadSize) throws IOException {
+		if(readAheadSize <= 0) {
+			throw new IllegalArgumentException("Invalid read-ahead size: " + readAheadSize);
+		}
+		windowStart = startDate != null ? startDate.getTime() : Long.MIN_VALUE;
+		windowEnd = endDate != null ? endDate.getTime() : Long.MAX_VALUE;
+		final Map<String, Field<?>> fieldMap = ELFFParser.createFieldMap(ELFFParser.PREDEFINED_FIELDS); //share fields among all files
+		int order = 0;
+		try {
+			for(final Path path : requireNonNull(paths, "Paths cannot be null.")) {
+				final Cursor cursor = new Cursor(new ELFFReader(openReader(path, readAheadSize), new ELFFParser(fieldMap)), order++);
+				try {
+					cursor.entry = cursor.reader.readEntry(); //read the directives and the first entry
+				} catch(final IOException ioException) {
+					cursor.reader.close();
+					throw ioException;
+				}
+				final ELFFParser parser = cursor.reader.getParser();
+				if(cursor.entry == null || !isInWindow(parser)) { //skip empty files and those outside the window
+					cursor.reader.close();
+					continue;
+				}
+				updateFields(cursor);
+				cursor.time = getTime(cursor.entry);
+				if(cursor.time >= windowEnd) { //as entries are in time order, no entry of the file lies within the window
+					cursor.entry = null;
+					cursor.reader.close();
+				} else if(cursor.time >= windowStart) {
+					cursorQueue.add(cursor);
+				} else {
+					advance(cursor);
+				}
+			}
+		} catch(final IOException | RuntimeException exception) {
+			close();
+			throw exception;
+		}
+	}
+
+	/**
+	 * Reads the next entry in time order from all files.
+	 * @return The next entry, or <code>null</code> if all entries within the time window have been read.
+	 * @throws IOException if there was an error reading a file, in which case that file is closed and no more of its entries are returned.
+	 */
+	public Entry readEntry() throws IOException {
+		final Cursor returnedCursor = this.returnedCursor;
+		if(returnedCursor != null) { //advance past the last entry returned only now, so that an error reading its file never loses that entry
+			this.returnedCursor = null;
+			advance(returnedCursor);
+		}
+		final Cursor cursor = cursorQueue.poll();
+		if(cursor == null) {
+			return null;
+		}
+		this.returnedCursor = cursor;
+		return cursor.entry;
+	}
+
+	/**
+	 * Advances a cursor to the next entry of its file within the time window, returning the cursor to the queue if there is such an entry and closing its file
+	 * otherwise. As the entries of each file are in time order, the file is closed at the first entry after the window.
+	 * @param cursor The cursor to advance.
+	 * @throws IOException if there was an error reading the file, in which case the file is closed.
+	 */
+	private void advance(final Cursor cursor) throws IOException {
+		Entry entry;
+		long time;
+		try {
+			do {
+				entry = cursor.reader.readEntry();
+				time = entry != null ? getTime(entry) : 0;
+			} while(entry != null && time < windowStart);
+		} catch(final IOException | RuntimeException exception) { //the cursor is no longer in the queue, so close its file here
+			cursor.entry = null;
+			try {
+				cursor.reader.close();
+			} catch(final IOException closeIOException) {
+				exception.addSuppressed(closeIOException);
+			}
+			throw exception;
+		}
+		if(entry != null && time < windowEnd) {
+			cursor.entry = entry;
+			cursor.time = time;
+			updateFields(cursor);
+			cursorQueue.add(cursor);
+		} else {
+			cursor.entry = null;
+			cursor.reader.close();
+		}
+	}
+
+	/**
+	 * Adds the fields of a cursor's current entry to the union schema if the file has changed its fields since the cursor's previous entry.
+	 * @param cursor The cursor the current entry of which has just been read.
+	 */
+	private void updateFields(final Cursor cursor) {
+		final ELFF fileELFF = cursor.reader.getParser().getELFF();
+		if(fileELFF != cursor.elff) { //if a new fields directive was read
+			cursor.elff = fileELFF;
+			if(unionFields.addAll(fileELFF.getFields())) { //create a new log only if there are new fields, as a log's fields never change
+				elff = new ELFF(unionFields.toArray(new Field<?>[unionFields.size()]));
+			}
+		}
+	}
+
+	/**
+	 * Determines whether the directives read so far allow a file to contain entries within the time window.
+	 * @param parser The parser of the file.
+	 * @return <code>false</code> if the file's start date is at or after the end of the window, or its end date is before the start of the window.
+	 */
+	private boolean isInWindow(final ELFFParser parser) {
+		final Long fileStart = parseDirectiveDateTime(parser.getDirective(ELFF.START_DATE_DIRECTIVE));
+		if(fileStart != null && fileStart.longValue() >= windowEnd) {
+			return false;
+		}
+		final Long fileEnd = parseDirectiveDateTime(parser.getDirective(ELFF.END_DATE_DIRECTIVE));
+		if(fileEnd != null && fileEnd.longValue() < windowStart) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Parses the date and time of a directive, in the form {@value ELFF#DATE_TIME_FORMAT_PATTERN} or with the time given to the second.
+	 * @param value The directive value, or <code>null</code>.
+	 * @return The date and time in milliseconds, or <code>null</code> if no value was given or the value could not be parsed.
+	 */
+	private static Long parseDirectiveDateTime(String value) {
+		if(value == null) {
+			return null;
+		}
+		final int dateLength = ELFF.DATE_FORMAT_PATTERN.length();
+		if(value.length() == dateLength + 1 + "HH:mm:ss".length()) { //if the time has no milliseconds
+			value = value + ":000";
+		}
+		try {
+			long dateTime = ELFF.parseDate(value, 0, Math.min(dateLength, value.length()));
+			if(value.length() > dateLength) {
+				dateTime += ELFF.parseTime(value, dateLength + 1, value.length());
+			}
+			return Long.valueOf(dateTime);
+		} catch(final IllegalArgumentException illegalArgumentException) {
+			return null; //don't skip a file because of a date we don't understand
+		}
+	}
+
+	/**
+	 * Determines the time of an entry from its date and time fields.
+	 * @param entry The entry.
+	 * @return The date and time of the entry in milliseconds; missing date or time values are considered zero.
+	 */
+	private static long getTime(final Entry entry) {
+		final Date date = entry.getFieldValue(Field.DATE_FIELD);
+		final Date time = entry.getFieldValue(Field.TIME_FIELD);
+		return (date != null ? date.getTime() : 0) + (time != null ? time.getTime() : 0);
+	}
+
+	/**
+	 * Opens a log file for reading, decompressing it if its name ends in <code>.gz</code>.
+	 * @param path The path of the file.
+	 * @param bufferSize The size of the read buffer in characters.
+	 * @return A reader of the log file.
+	 * @throws IOException if there was an error opening the file.
+	 */
+	private static BufferedReader openReader(final Path path, final int bufferSize) throws IOException {
+		InputStream inputStream = Files.newInputStream(path);
+		try {
+			if(path.getFileName() != null && path.getFileName().toString().endsWith(".gz")) {
+				inputStream = new GZIPInputStream(inputStream);
+			}
+		} catch(final IOException ioException) {
+			inputStream.close();
+			throw ioException;
+		}
+		return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), bufferSize);
+	}
+
+	/**
+	 * Closes all files that have not yet been completely read.
+	 * @throws IOException if there was an error closing a file.
+	 */
+	@Override
+	public void close() throws IOException {
+		IOException ioException = null;
+		if(returnedCursor != null) {
+			cursorQueue.add(returnedCursor);
+			returnedCursor = null;
+		}
+		Cursor cursor;
+		while((cursor = cursorQueue.poll()) != null) {
+			try {
+				cursor.reader.close();
+			} catch(final IOException closeIOException) {
+				if(ioException == null) {
+					ioException = closeIOException;
+				}
+			}
+		}
+		if(ioException != null) {
+			throw ioException;
+		}
+	}
+}
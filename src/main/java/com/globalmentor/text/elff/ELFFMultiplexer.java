@@ -0,0 +1,322 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.text.elff;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+
+import static java.util.Objects.*;
+
+import com.globalmentor.model.NameValuePair;
+
+/**
+ * A logging engine that writes entries for several logs, each with its own fields and output, using a single drain thread.
+ * <p>
+ * Each log is registered along with the writer to which its entries should be written; its directives are written as soon as it is registered. Entries
+ * submitted for any log are serialized into a single {@link EntryRingBuffer} shared by all logs, so that the off-heap memory used stays fixed no matter how
+ * many logs are registered. A single drain thread formats waiting entries in the order they were submitted, collecting the entries of each log, then writes
+ * each log's entries as a single batch and flushes each written log once per pass. This avoids a thread and a buffer per log, as well as many small writes to
+ * each output.
+ * </p>
+ * <p>
+ * This class is thread-safe. The multiplexer must be closed to guarantee that all submitted entries are written.
+ * </p>
+ */
+public class ELFFMultiplexer implements Closeable {
+
+	/** The default maximum number of entries formatted before being written. */
+	public static final int DEFAULT_BATCH_SIZE = 1024;
+
+	/** The maximum time in nanoseconds the drain thread waits before checking for entries even if it has not been notified. */
+	private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	/** An output for a single log. */
+	private static class Stream {
+
+		/** The log written to this stream. */
+		final ELFF elff;
+
+		/** The tag identifying the entries of this log in the shared entry buffer. */
+		final int tag;
+
+		/** The writer to which formatted entries are written. */
+		final Writer writer;
+
+		/** The buffer holding formatted entries waiting to be written; only accessed by the drain thread. */
+		final StringBuilder stringBuilder = new StringBuilder();
+
+		/**
+		 * The error that occurred formatting entries for or writing to this stream, or <code>null</code> if no error has occurred. An unchecked exception is
+		 * recorded as the cause of an {@link IOException}.
+		 */
+		volatile IOException ioException = null;
+
+		/**
+		 * Constructor.
+		 * @param elff The log written to this stream.
+		 * @param tag The tag identifying the entries of this log in the shared entry buffer.
+		 * @param writer The writer to which formatted entries are written.
+		 */
+		Stream(final ELFF elff, final int tag, final Writer writer) {
+			this.elff = elff;
+			this.tag = tag;
+			this.writer = writer;
+		}
+	}
+
+	/** The staging buffer of entries of all logs waiting to be written. */
+	private final EntryRingBuffer entryBuffer;
+
+	/** The maximum number of entries formatted before being written. */
+	private final int batchSize;
+
+	/** The outputs of the registered logs, keyed to their logs. */
+	private final Map<ELFF, Stream> streamMap = new ConcurrentHashMap<ELFF, Stream>();
+
+	/** The outputs of the registered logs, indexed by their tags. */
+	private final List<Stream> streams = new CopyOnWriteArrayList<Stream>();
+
+	/** The lock serializing the registration of logs. */
+	private final Object registrationLock = new Object();
+
+	/**
+	 * The lock coordinating closing with entry submission and registration. Submitting an entry or registering a log holds the read lock, so that closing, which
+	 * acquires the write lock, waits for any submission in progress to finish before the drain thread is told to finish.
+	 */
+	private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+	/** The thread that formats and writes the entries of all logs. */
+	private final Thread drainThread;
+
+	/** Whether the multiplexer has been closed; only set while holding the write lock of {@link #closeLock}. */
+	private volatile boolean closed = false;
+
+	/**
+	 * Buffer capacity constructor with a default batch size.
+	 * @param bufferCapacity The number of bytes of off-heap memory to allocate for the entries of all logs.
+	 * @throws IllegalArgumentException if the given buffer capacity is not positive.
+	 */
+	public ELFFMultiplexer(final int bufferCapacity) {
+		this(bufferCapacity, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Buffer capacity and batch size constructor. The drain thread is started immediately.
+	 * @param bufferCapacity The number of bytes of off-heap memory to allocate for the entries of all logs.
+	 * @param batchSize The maximum number of entries formatted before being written.
+	 * @throws IllegalArgumentException if the given buffer capacity and/or batch size is not positive.
+	 */
+	public ELFFMultiplexer(final int bufferCapacity, final int batchSize) {
+		if(bufferCapacity <= 0) {
+			throw new IllegalArgumentException("Invalid buffer capacity: " + bufferCapacity);
+		}
+		if(batchSize <= 0) {
+			throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+		}
+		entryBuffer = new EntryRingBuffer(bufferCapacity);
+		this.batchSize = batchSize;
+		drainThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				drain();
+			}
+		}, getClass().getSimpleName());
+		drainThread.setDaemon(true);
+		drainThread.start();
+	}
+
+	/**
+	 * Registers a log and writes its directives to the given writer.
+	 * @param elff The log to register.
+	 * @param writer The writer to which the directives and entries of the log should be written.
+	 * @param directives The names and values of additional directives to write.
+	 * @throws NullPointerException if the given log and/or writer is <code>null</code>.
+	 * @throws IllegalStateException if the log is already registered.
+	 * @throws IOException if the multiplexer is closed or there was an error writing the directives.
+	 * @see ELFF#serializeDirectives(NameValuePair...)
+	 */
+	@SuppressWarnings("unchecked")
+	public void register(final ELFF elff, final Writer writer, final NameValuePair<String, String>... directives) throws IOException {
+		requireNonNull(elff, "ELFF cannot be null.");
+		requireNonNull(writer, "Writer cannot be null.");
+		final Lock readLock = closeLock.readLock();
+		readLock.lock();
+		try {
+			checkOpen();
+			synchronized(registrationLock) { //make sure that only one registration of a log writes its directives
+				if(streamMap.containsKey(elff)) {
+					throw new IllegalStateException("Log is already registered.");
+				}
+				writer.write(elff.serializeDirectives(directives)); //write the directives before any entries can be submitted
+				writer.flush();
+				final Stream stream = new Stream(elff, streams.size(), writer);
+				streams.add(stream); //make the stream available to the drain thread before any of its entries
+				streamMap.put(elff, stream);
+			}
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Submits an entry to be written to the output of a log, waiting if necessary for room in the buffer shared by all logs.
+	 * @param elff The log to which the entry should be written.
+	 * @param entry The entry to write.
+	 * @throws NullPointerException if the given log and/or entry is <code>null</code>.
+	 * @throws IllegalArgumentException if the log has not been registered, or the serialized entry is larger than the buffer capacity.
+	 * @throws ClassCastException if a value of the entry is not compatible with its field's type.
+	 * @throws InterruptedIOException if the thread was interrupted while waiting for room.
+	 * @throws IOException if the multiplexer is closed or there was an earlier error formatting entries for or writing to the output of the log.
+	 */
+	public void log(final ELFF elff, final Entry entry) throws IOException {
+		requireNonNull(entry, "Entry cannot be null.");
+		final Lock readLock = closeLock.readLock();
+		readLock.lock();
+		try {
+			checkOpen(); //once closing has begun, no more entries are accepted
+			final Stream stream = streamMap.get(requireNonNull(elff, "ELFF cannot be null."));
+			if(stream == null) {
+				throw new IllegalArgumentException("Log is not registered.");
+			}
+			final IOException ioException = stream.ioException;
+			if(ioException != null) {
+				throw new IOException("Log output failed.", ioException);
+			}
+			try {
+				entryBuffer.put(elff, stream.tag, entry); //the drain thread is still running, so room will become available
+			} catch(final InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+				throw (InterruptedIOException)new InterruptedIOException("Interrupted waiting for log buffer.").initCause(interruptedException);
+			}
+		} finally {
+			readLock.unlock();
+		}
+		LockSupport.unpark(drainThread); //let the drain thread know there is something to write
+	}
+
+	/**
+	 * Closes the multiplexer, writing all submitted entries and then closing the writers of all registered logs.
+	 * @throws IOException if there was an error writing to or closing any output.
+	 */
+	@Override
+	public void close() throws IOException {
+		final Lock writeLock = closeLock.writeLock();
+		writeLock.lock(); //wait for any submission in progress, so that its entry is written before the drain thread finishes
+		try {
+			if(closed) {
+				return;
+			}
+			closed = true;
+		} finally {
+			writeLock.unlock();
+		}
+		LockSupport.unpark(drainThread);
+		boolean interrupted = false;
+		while(drainThread.isAlive()) { //the drain thread writes everything remaining before it finishes
+			try {
+				drainThread.join();
+			} catch(final InterruptedException interruptedException) {
+				interrupted = true;
+			}
+		}
+		if(interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		IOException ioException = null;
+		for(final Stream stream : streams) {
+			if(stream.ioException != null && ioException == null) {
+				ioException = stream.ioException;
+			}
+			try {
+				stream.writer.close();
+			} catch(final IOException closeIOException) {
+				if(ioException == null) {
+					ioException = closeIOException;
+				}
+			} catch(final RuntimeException runtimeException) {
+				if(ioException == null) {
+					ioException = new IOException("Error closing log output.", runtimeException);
+				}
+			}
+		}
+		if(ioException != null) {
+			throw ioException;
+		}
+	}
+
+	/**
+	 * Ensures that the multiplexer has not been closed.
+	 * @throws IOException if the multiplexer has been closed.
+	 */
+	private void checkOpen() throws IOException {
+		if(closed) {
+			throw new IOException("Multiplexer is closed.");
+		}
+	}
+
+	/**
+	 * Formats and writes waiting entries of all logs until the multiplexer is closed and no entries remain. This is the body of the drain thread. An error
+	 * formatting an entry or writing an output, whether checked or not, is recorded as the failure of that log alone, so that the drain thread keeps freeing
+	 * room in the shared buffer and producers and {@link #close()} never wait forever.
+	 */
+	private void drain() {
+		final List<Stream> writtenStreams = new ArrayList<Stream>();
+		while(true) {
+			final boolean wasClosed = closed; //check before draining, so that entries submitted before closing are written
+			int count = 0;
+			int tag;
+			while(count < batchSize && (tag = entryBuffer.peekTag()) >= 0) {
+				final Stream stream = streams.get(tag);
+				if(stream.ioException != null) { //discard entries for failed outputs so that no producer waits forever for room
+					entryBuffer.skip();
+				} else {
+					if(stream.stringBuilder.length() == 0) { //if this is the first entry of this log in this pass
+						writtenStreams.add(stream);
+					}
+					final int length = stream.stringBuilder.length();
+					try {
+						entryBuffer.poll(stream.elff, stream.stringBuilder); //the entry's space is released even if formatting fails
+					} catch(final RuntimeException runtimeException) {
+						stream.stringBuilder.setLength(length); //remove any partially formatted entry, but still write the entries before it
+						stream.ioException = new IOException("Error formatting log entry.", runtimeException);
+					}
+				}
+				++count;
+			}
+			for(final Stream stream : writtenStreams) { //write and flush each output once per pass
+				try {
+					stream.writer.append(stream.stringBuilder);
+					stream.writer.flush();
+				} catch(final IOException ioException) {
+					stream.ioException = ioException;
+				} catch(final RuntimeException runtimeException) {
+					stream.ioException = new IOException("Error writing log output.", runtimeException);
+				}
+				stream.stringBuilder.setLength(0);
+			}
+			writtenStreams.clear();
+			if(count == 0) { //if there was nothing to write
+				if(wasClosed) {
+					break;
+				}
+				LockSupport.parkNanos(this, MAX_IDLE_NANOS); //wait for another entry or for closing
+			}
+		}
+	}
+}
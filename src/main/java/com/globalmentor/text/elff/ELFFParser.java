@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.text.elff;
+
+import java.text.ParseException;
+import java.util.*;
+
+import static java.util.Objects.*;
+
+/**
+ * Parses the lines of a log in the Extended Log File Format (ELFF), one at a time, keeping track of the directives encountered.
+ * <p>
+ * Each {@value ELFF#FIELDS_DIRECTIVE} directive establishes a new {@link ELFF} describing the layout of the entries that follow. Field identifiers are
+ * resolved to known fields, by default the fields predefined in {@link Field}; unknown identifiers are resolved to new {@link FieldType#STRING} fields, which
+ * are then reused whenever the same identifier appears again.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ * @see <a href="https://www.w3.org/TR/WD-logfile.html">W3C Extended Log File Format</a>
+ */
+public class ELFFParser {
+
+	/** The fields predefined in {@link Field}, which are recognized by default. */
+	static final Field<?>[] PREDEFINED_FIELDS = {Field.DATE_FIELD, Field.TIME_FIELD, Field.TIME_TAKEN_FIELD, Field.BYTES_FIELD, Field.CACHED_FIELD,
+			Field.CLIENT_IP_FIELD, Field.CLIENT_SERVER_USERNAME_FIELD, Field.CLIENT_SERVER_HOST_FIELD, Field.CLIENT_SERVER_METHOD_FIELD,
+			Field.CLIENT_SERVER_URI_STEM_FIELD, Field.CLIENT_SERVER_URI_QUERY_FIELD, Field.SERVER_CLIENT_STATUS_FIELD, Field.CLIENT_SERVER_BYTES_FIELD,
+			Field.CLIENT_SERVER_VERSION_FIELD, Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD, Field.CLIENT_SERVER_COOKIE_HEADER_FIELD,
+			Field.CLIENT_SERVER_REFERER_HEADER_FIELD, Field.DCS_ID_FIELD};
+
+	/** The fields keyed to their formatted identifiers. */
+	private final Map<String, Field<?>> fieldMap;
+
+	/** The directives encountered so far, keyed to their names; later directives replace earlier ones with the same name. */
+	private final Map<String, String> directiveMap = new HashMap<String, String>();
+
+	/**
+	 * Retrieves the value of the last directive of the given name encountered.
+	 * @param name The name of the directive.
+	 * @return The value of the directive, or <code>null</code> if no such directive has been encountered.
+	 */
+	public String getDirective(final String name) {
+		return directiveMap.get(name);
+	}
+
+	/** The log describing the current layout of entries, or <code>null</code> if no {@value ELFF#FIELDS_DIRECTIVE} directive has been encountered. */
+	private ELFF elff = null;
+
+	/** @return The log describing the current layout of entries, or <code>null</code> if no {@value ELFF#FIELDS_DIRECTIVE} directive has been encountered. */
+	public ELFF getELFF() {
+		return elff;
+	}
+
+	/** The cache of decoded header string values given to each log created, or <code>null</code> if header values should not be cached. */
+	private ClockCache<String, String> decodedHeaderValueCache = null;
+
+	/** @return The cache of decoded header string values given to each log created, or <code>null</code> if header values are not cached. */
+	public ClockCache<String, String> getDecodedHeaderValueCache() {
+		return decodedHeaderValueCache;
+	}
+
+	/**
+	 * Sets the cache of decoded header string values to be used by each log created from a {@value ELFF#FIELDS_DIRECTIVE} directive, including the current log.
+	 * Readers using this parser then share decoded header values among entries.
+	 * @param decodedHeaderValueCache The cache of decoded header string values, or <code>null</code> if header values should not be cached.
+	 * @see ELFF#setDecodedHeaderValueCache(ClockCache)
+	 */
+	public void setDecodedHeaderValueCache(final ClockCache<String, String> decodedHeaderValueCache) {
+		this.decodedHeaderValueCache = decodedHeaderValueCache;
+		if(elff != null) {
+			elff.setDecodedHeaderValueCache(decodedHeaderValueCache);
+		}
+	}
+
+	/** The filter of entries, or <code>null</code> if all entries should be parsed. */
+	private FieldFilter filter = null;
+
+	/** @return The filter of entries, or <code>null</code> if all entries are parsed. */
+	public FieldFilter getFilter() {
+		return filter;
+	}
+
+	/**
+	 * Sets the filter of entries. Entry lines not accepted by the filter are skipped as if they were blank, before any entry is created. The filter is compiled
+	 * against each new {@value ELFF#FIELDS_DIRECTIVE} directive.
+	 * @param filter The filter of entries, or <code>null</code> if all entries should be parsed.
+	 */
+	public void setFilter(final FieldFilter filter) {
+		this.filter = filter;
+		lineFilter = null; //compile the new filter when it is next needed
+	}
+
+	/** The filter compiled for the current log, or <code>null</code> if the filter has not yet been compiled. */
+	private LineFilter lineFilter = null;
+
+	/** Default constructor, recognizing the fields predefined in {@link Field}. */
+	public ELFFParser() {
+		this(PREDEFINED_FIELDS);
+	}
+
+	/**
+	 * Known fields constructor.
+	 * @param knownFields The fields to recognize in the {@value ELFF#FIELDS_DIRECTIVE} directive.
+	 * @throws NullPointerException if the given fields are <code>null</code>.
+	 */
+	public ELFFParser(final Field<?>... knownFields) {
+		this(createFieldMap(knownFields));
+	}
+
+	/**
+	 * Field map constructor. The map is updated with any unknown fields encountered, and may be shared among parsers so that the same identifier resolves to the
+	 * same field in different logs.
+	 * @param fieldMap The fields keyed to their formatted identifiers.
+	 * @throws NullPointerException if the given map is <code>null</code>.
+	 */
+	ELFFParser(final Map<String, Field<?>> fieldMap) {
+		this.fieldMap = requireNonNull(fieldMap, "Field map cannot be null.");
+	}
+
+	/**
+	 * Creates a map of fields keyed to their formatted identifiers.
+	 * @param fields The fields to include.
+	 * @return A new mutable map of the given fields.
+	 * @throws NullPointerException if the given fields are <code>null</code>.
+	 */
+	static Map<String, Field<?>> createFieldMap(final Field<?>... fields) {
+		final Map<String, Field<?>> fieldMap = new HashMap<String, Field<?>>();
+		for(final Field<?> field : fields) {
+			fieldMap.put(ELFF.formatFieldIdentifier(new StringBuilder(), field).toString(), field);
+		}
+		return fieldMap;
+	}
+
+	/**
+	 * Parses a line of a log. Directives are recorded, and blank lines and entries not accepted by any filter are ignored.
+	 * @param line The line to parse, with or without its ending newline.
+	 * @return The entry the line represents, or <code>null</code> if the line is a directive, blank, or not accepted by the filter.
+	 * @throws NullPointerException if the given line is <code>null</code>.
+	 * @throws ParseException if the line is an entry that does not match the current {@value ELFF#FIELDS_DIRECTIVE} directive, or no such directive has been
+	 *           encountered.
+	 * @see ELFF#parseEntry(CharSequence)
+	 */
+	public Entry parseLine(final CharSequence line) throws ParseException {
+		final int length = line.length();
+		if(length > 0 && line.charAt(0) == '#') { //#Name: value
+			parseDirective(line.toString().trim());
+			return null;
+		}
+		int index = 0;
+		while(index < length && Character.isWhitespace(line.charAt(index))) {
+			++index;
+		}
+		if(index == length) { //ignore blank lines
+			return null;
+		}
+		return parseEntry(line);
+	}
+
+	/**
+	 * Parses a line known to hold an entry according to the current log, if it is accepted by the filter.
+	 * @param line The line to parse.
+	 * @return The entry the line represents, or <code>null</code> if the line is not accepted by the filter.
+	 * @throws ParseException if the line does not match the current {@value ELFF#FIELDS_DIRECTIVE} directive, or no such directive has been encountered.
+	 */
+	private Entry parseEntry(final CharSequence line) throws ParseException {
+		if(elff == null) {
+			throw new ParseException("Entry encountered before " + ELFF.FIELDS_DIRECTIVE + " directive.", 0);
+		}
+		if(filter != null) {
+			if(lineFilter == null) {
+				lineFilter = filter.compile(elff);
+			}
+			if(!lineFilter.test(line)) {
+				return null;
+			}
+		}
+		return elff.parseEntry(line);
+	}
+
+	/**
+	 * Parses and records a directive. A {@value ELFF#FIELDS_DIRECTIVE} directive establishes a new current log.
+	 * @param directive The directive line, beginning with '#', without surrounding whitespace.
+	 * @throws ParseException if the directive has no name delimiter.
+	 */
+	private void parseDirective(final String directive) throws ParseException {
+		final int delimiterIndex = directive.indexOf(':');
+		if(delimiterIndex < 0) {
+			throw new ParseException("Directive missing ':' delimiter: " + directive, 0);
+		}
+		final String name = directive.substring(1, delimiterIndex).trim();
+		final String value = directive.substring(delimiterIndex + 1).trim();
+		directiveMap.put(name, value);
+		if(name.equals(ELFF.FIELDS_DIRECTIVE)) {
+			final List<Field<?>> fields = new ArrayList<Field<?>>();
+			for(final String identifier : value.split("\\s+")) {
+				if(!identifier.isEmpty()) {
+					fields.add(resolveField(identifier));
+				}
+			}
+			elff = new ELFF(fields.toArray(new Field<?>[fields.size()]));
+			elff.setDecodedHeaderValueCache(decodedHeaderValueCache);
+			lineFilter = null; //the filter must be compiled for the new layout
+		}
+	}
+
+	/**
+	 * Resolves a formatted field identifier to a field. If the identifier is not known, a new {@link FieldType#STRING} field is created and remembered.
+	 * @param identifier The formatted field identifier, such as <code>time-taken</code>, <code>sc-status</code>, or <code>cs(User-Agent)</code>.
+	 * @return The field with the given identifier.
+	 */
+	private Field<?> resolveField(final String identifier) {
+		Field<?> field = fieldMap.get(identifier);
+		if(field == null) {
+			field = parseFieldIdentifier(identifier);
+			fieldMap.put(identifier, field);
+		}
+		return field;
+	}
+
+	/**
+	 * Creates a {@link FieldType#STRING} field from a formatted field identifier. This is the reverse of
+	 * {@link ELFF#formatFieldIdentifier(StringBuilder, FieldIdentifier)}.
+	 * @param identifier The formatted field identifier.
+	 * @return A new field with the given identifier.
+	 */
+	static Field<String> parseFieldIdentifier(final String identifier) {
+		final int headerStart = identifier.indexOf('(');
+		if(headerStart > 0 && identifier.endsWith(")")) { //prefix(header)
+			final FieldIdentifierPrefix prefix = getPrefix(identifier.substring(0, headerStart));
+			if(prefix != null) {
+				return new Field<String>(prefix, identifier.substring(headerStart + 1, identifier.length() - 1), true, FieldType.STRING);
+			}
+		}
+		final int prefixEnd = identifier.indexOf('-');
+		if(prefixEnd > 0) { //prefix-identifier
+			final FieldIdentifierPrefix prefix = getPrefix(identifier.substring(0, prefixEnd));
+			if(prefix != null) {
+				return new Field<String>(prefix, identifier.substring(prefixEnd + 1), FieldType.STRING);
+			}
+		}
+		return new Field<String>(identifier, FieldType.STRING); //identifier
+	}
+
+	/**
+	 * Determines the field identifier prefix with the given ID.
+	 * @param id The literal ID of the prefix.
+	 * @return The prefix with the given ID, or <code>null</code> if there is no such prefix.
+	 */
+	private static FieldIdentifierPrefix getPrefix(final String id) {
+		for(final FieldIdentifierPrefix prefix : FieldIdentifierPrefix.values()) {
+			if(prefix.getID().equals(id)) {
+				return prefix;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.text.elff;
+
+import java.io.*;
+import java.text.ParseException;
+
+import static java.util.Objects.*;
+
+/**
+ * Reads entries from a log in the Extended Log File Format (ELFF). Entries are returned as {@link LazyEntry} instances, which decode their field values only
+ * when requested.
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ * @see ELFFParser
+ */
+public class ELFFReader implements Closeable {
+
+	/** The reader providing the lines of the log. */
+	private final BufferedReader reader;
+
+	/** The parser of the lines of the log. */
+	private final ELFFParser parser;
+
+	/** @return The parser of the lines of the log, which provides the directives encountered and the current layout of entries. */
+	public ELFFParser getParser() {
+		return parser;
+	}
+
+	/** The number of lines read so far. */
+	private long lineNumber = 0;
+
+	/** @return The number of lines read so far. */
+	public long getLineNumber() {
+		return lineNumber;
+	}
+
+	/**
+	 * Reader constructor, recognizing the fields predefined in {@link Field}.
+	 * @param reader The reader providing the lines of the log.
+	 * @throws NullPointerException if the given reader is <code>null</code>.
+	 */
+	public ELFFReader(final Reader reader) {
+		this(reader, new ELFFParser());
+	}
+
+	/**
+	 * Reader and parser constructor.
+	 * @param reader The reader providing the lines of the log. If the reader is not a {@link BufferedReader}, it will be buffered.
+	 * @param parser The parser of the lines of the log.
+	 * @throws NullPointerException if the given reader and/or parser is <code>null</code>.
+	 */
+	public ELFFReader(final Reader reader, final ELFFParser parser) {
+		requireNonNull(reader, "Reader cannot be null.");
+		this.reader = reader instanceof BufferedReader ? (BufferedReader)reader : new BufferedReader(reader);
+		this.parser = requireNonNull(parser, "Parser cannot be null.");
+	}
+
+	/**
+	 * Reads the next entry from the log, processing any directives that precede it.
+	 * @return The next entry, or <code>null</code> if the end of the log has been reached.
+	 * @throws IOException if there was an error reading the log or a line could not be parsed.
+	 */
+	public Entry readEntry() throws IOException {
+		String line;
+		while((line = reader.readLine()) != null) {
+			++lineNumber;
+			final Entry entry;
+			try {
+				entry = parser.parseLine(line);
+			} catch(final ParseException parseException) {
+				throw new IOException("Error parsing line " + lineNumber + ": " + parseException.getMessage(), parseException);
+			}
+			if(entry != null) {
+				return entry;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+}
@@ -0,0 +1,657 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.text.elff;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.concurrent.locks.*;
+
+import static java.util.Objects.*;
+
+/**
+ * An off-heap staging buffer for log entries that have been submitted but not yet written.
+ * <p>
+ * Each entry is serialized in a compact binary form into a direct byte buffer of fixed capacity as soon as it is submitted, so that no {@link Entry} or field
+ * value needs to remain on the heap while it waits to be written. A single consumer then formats the entries from the buffer as ELFF text in the order in which
+ * they were submitted. Heap usage therefore stays flat regardless of how many entries are waiting; once the buffer is full, producers either wait for space
+ * using {@link #put(Entry)} or are refused using {@link #offer(Entry)}.
+ * </p>
+ * <p>
+ * Any number of threads may submit entries concurrently, but only a single thread at a time may consume entries. Each producer serializes its entry into a
+ * scratch buffer of its own thread, and holds the lock only to reserve space for the record and later to make it available; the record is copied into the
+ * reserved space without holding the lock, so that producers copy their records in parallel. Records become available to the consumer in the order in which
+ * their space was reserved.
+ * </p>
+ * <p>
+ * A buffer may also be shared among several logs, so that they draw on a single fixed amount of memory; each record is then tagged with the log to which it
+ * belongs. Such a buffer is used through package-private methods that identify the log of each entry, and its public entry methods may not be used.
+ * </p>
+ */
+public class EntryRingBuffer {
+
+	/** The size of the header preceding each record, which holds the length of the record. */
+	private static final int RECORD_HEADER_LENGTH = 4;
+
+	/** The size of the header preceding each record of a shared buffer, which holds the length of the record followed by its tag. */
+	private static final int TAGGED_RECORD_HEADER_LENGTH = RECORD_HEADER_LENGTH + 4;
+
+	/** The marker indicating that a field has no value. */
+	private static final byte NULL_VALUE_MARKER = 0;
+
+	/** The marker indicating that a field value follows. */
+	private static final byte VALUE_MARKER = 1;
+
+	/** The initial size of the scratch buffer of each producer thread. */
+	private static final int INITIAL_SCRATCH_BUFFER_SIZE = 1024;
+
+	/** The heap buffer of each producer thread in which records are serialized before being copied into a ring buffer; grown as needed. */
+	private static final ThreadLocal<ByteBuffer> SCRATCH_BUFFER = new ThreadLocal<ByteBuffer>() {
+		@Override
+		protected ByteBuffer initialValue() {
+			return ByteBuffer.allocate(INITIAL_SCRATCH_BUFFER_SIZE);
+		}
+	};
+
+	/** The log the fields of which determine the content of each entry, or <code>null</code> if the buffer is shared among logs. */
+	private final ELFF elff;
+
+	/** @return The log the fields of which determine the content of each entry, or <code>null</code> if the buffer is shared among logs. */
+	public ELFF getELFF() {
+		return elff;
+	}
+
+	/**
+	 * Returns the single log of this buffer.
+	 * @return The log the fields of which determine the content of each entry.
+	 * @throws IllegalStateException if the buffer is shared among logs.
+	 */
+	private ELFF requireELFF() {
+		if(elff == null) {
+			throw new IllegalStateException("Buffer is shared among logs.");
+		}
+		return elff;
+	}
+
+	/** The size of the header preceding each record. */
+	private final int recordHeaderLength;
+
+	/** The direct buffer holding the serialized entries. */
+	private final ByteBuffer buffer;
+
+	/** @return The capacity of the buffer in bytes. */
+	public int getCapacity() {
+		return buffer.capacity();
+	}
+
+	/** The lock guarding the read and write positions. */
+	private final Lock lock = new ReentrantLock();
+
+	/** The condition signaled when an entry has been added. */
+	private final Condition notEmpty = lock.newCondition();
+
+	/** The condition signaled when a record has been made available, so that the producer of the record reserved after it may make its own available. */
+	private final Condition committed = lock.newCondition();
+
+	/** The condition signaled when an entry has been removed. */
+	private final Condition notFull = lock.newCondition();
+
+	/** The total number of bytes ever reserved for records; the next write position is this value modulo the capacity. */
+	private long writePosition = 0;
+
+	/** The total number of bytes of records completely written and available to the consumer; never more than the write position. */
+	private long committedPosition = 0;
+
+	/** The total number of bytes ever read; the next read position is this value modulo the capacity. */
+	private long readPosition = 0;
+
+	/** @return The number of bytes currently used by entries waiting to be formatted, including those still being copied into the buffer. */
+	public int getSize() {
+		lock.lock();
+		try {
+			return (int)(writePosition - readPosition);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** @return <code>true</code> if there are no entries waiting to be formatted. */
+	public boolean isEmpty() {
+		return getSize() == 0;
+	}
+
+	/**
+	 * Log and capacity constructor.
+	 * @param elff The log the fields of which determine the content of each entry.
+	 * @param capacity The number of bytes of off-heap memory to allocate for entries waiting to be formatted.
+	 * @throws NullPointerException if the given log is <code>null</code>.
+	 * @throws IllegalArgumentException if the given capacity is not positive.
+	 */
+	public EntryRingBuffer(final ELFF elff, final int capacity) {
+		this(requireNonNull(elff, "ELFF cannot be null."), RECORD_HEADER_LENGTH, capacity);
+	}
+
+	/**
+	 * Shared capacity constructor. The buffer may hold the entries of any number of logs, each record being tagged to identify its log.
+	 * @param capacity The number of bytes of off-heap memory to allocate for entries of all logs waiting to be formatted.
+	 * @throws IllegalArgumentException if the given capacity is not positive.
+	 * @see #put(ELFF, int, Entry)
+	 */
+	EntryRingBuffer(final int capacity) {
+		this(null, TAGGED_RECORD_HEADER_LENGTH, capacity);
+	}
+
+	/**
+	 * Log, record header length, and capacity constructor.
+	 * @param elff The log the fields of which determine the content of each entry, or <code>null</code> if the buffer is shared among logs.
+	 * @param recordHeaderLength The size of the header preceding each record.
+	 * @param capacity The number of bytes of off-heap memory to allocate for entries waiting to be formatted.
+	 * @throws IllegalArgumentException if the given capacity is not positive.
+	 */
+	private EntryRingBuffer(final ELFF elff, final int recordHeaderLength, final int capacity) {
+		this.elff = elff;
+		this.recordHeaderLength = recordHeaderLength;
+		if(capacity <= 0) {
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+		}
+		buffer = ByteBuffer.allocateDirect(capacity);
+	}
+
+	/**
+	 * Serializes an entry into the buffer if there is room.
+	 * @param entry The entry to add.
+	 * @return <code>true</code> if the entry was added, or <code>false</code> if there was not enough room in the buffer.
+	 * @throws NullPointerException if the given entry is <code>null</code>.
+	 * @throws IllegalArgumentException if the serialized entry is larger than the capacity of the buffer.
+	 * @throws ClassCastException if a value of the entry is not compatible with its field's type.
+	 * @throws IllegalStateException if the buffer is shared among logs.
+	 */
+	public boolean offer(final Entry entry) {
+		final ELFF elff = requireELFF();
+		final ByteBuffer record = serialize(elff, 0, entry);
+		final int recordLength = record.remaining();
+		final long recordStart;
+		lock.lock();
+		try {
+			if(getCapacity() - (writePosition - readPosition) < recordLength) { //if there isn't room
+				return false;
+			}
+			recordStart = writePosition; //reserve the space
+			writePosition += recordLength;
+		} finally {
+			lock.unlock();
+		}
+		copy(recordStart, record);
+		commit(recordStart, recordLength);
+		return true;
+	}
+
+	/**
+	 * Serializes an entry into the buffer, waiting if necessary for room to become available.
+	 * @param entry The entry to add.
+	 * @throws NullPointerException if the given entry is <code>null</code>.
+	 * @throws IllegalArgumentException if the serialized entry is larger than the capacity of the buffer.
+	 * @throws ClassCastException if a value of the entry is not compatible with its field's type.
+	 * @throws IllegalStateException if the buffer is shared among logs.
+	 * @throws InterruptedException if the thread was interrupted while waiting for room.
+	 */
+	public void put(final Entry entry) throws InterruptedException {
+		put(requireELFF(), 0, entry);
+	}
+
+	/**
+	 * Serializes an entry of one of the logs sharing this buffer, waiting if necessary for room to become available.
+	 * @param elff The log to which the entry belongs.
+	 * @param tag The tag identifying the log, which is ignored unless the buffer is shared among logs.
+	 * @param entry The entry to add.
+	 * @throws NullPointerException if the given entry is <code>null</code>.
+	 * @throws IllegalArgumentException if the serialized entry is larger than the capacity of the buffer.
+	 * @throws ClassCastException if a value of the entry is not compatible with its field's type.
+	 * @throws InterruptedException if the thread was interrupted while waiting for room.
+	 * @see #peekTag()
+	 */
+	void put(final ELFF elff, final int tag, final Entry entry) throws InterruptedException {
+		final ByteBuffer record = serialize(elff, tag, requireNonNull(entry, "Entry cannot be null."));
+		final int recordLength = record.remaining();
+		final long recordStart;
+		lock.lockInterruptibly();
+		try {
+			while(getCapacity() - (writePosition - readPosition) < recordLength) { //wait until there is room
+				notFull.await();
+			}
+			recordStart = writePosition; //reserve the space
+			writePosition += recordLength;
+		} finally {
+			lock.unlock();
+		}
+		copy(recordStart, record);
+		commit(recordStart, recordLength);
+	}
+
+	/**
+	 * Formats the next entry, if any, as ELFF text. The formatted entry includes the ending newline character.
+	 * @param stringBuilder The string builder for formatting the entry.
+	 * @return <code>true</code> if an entry was formatted, or <code>false</code> if the buffer was empty.
+	 * @throws IllegalStateException if the buffer is shared among logs.
+	 */
+	public boolean poll(final StringBuilder stringBuilder) {
+		final ELFF elff = requireELFF();
+		lock.lock();
+		try {
+			if(committedPosition == readPosition) {
+				return false;
+			}
+		} finally {
+			lock.unlock();
+		}
+		read(elff, stringBuilder);
+		return true;
+	}
+
+	/**
+	 * Formats the next entry as ELFF text, waiting if necessary for an entry to become available. The formatted entry includes the ending newline character.
+	 * @param stringBuilder The string builder for formatting the entry.
+	 * @throws IllegalStateException if the buffer is shared among logs.
+	 * @throws InterruptedException if the thread was interrupted while waiting for an entry.
+	 */
+	public void take(final StringBuilder stringBuilder) throws InterruptedException {
+		final ELFF elff = requireELFF();
+		lock.lockInterruptibly();
+		try {
+			while(committedPosition == readPosition) { //wait until there is an entry
+				notEmpty.await();
+			}
+		} finally {
+			lock.unlock();
+		}
+		read(elff, stringBuilder);
+	}
+
+	/**
+	 * Formats as many waiting entries as are available, up to the given maximum, as ELFF text.
+	 * @param stringBuilder The string builder for formatting the entries.
+	 * @param maxEntries The maximum number of entries to format.
+	 * @return The number of entries formatted.
+	 * @throws IllegalStateException if the buffer is shared among logs.
+	 */
+	public int drainTo(final StringBuilder stringBuilder, final int maxEntries) {
+		int count = 0;
+		while(count < maxEntries && poll(stringBuilder)) {
+			++count;
+		}
+		return count;
+	}
+
+	/**
+	 * Determines the tag of the next entry of a buffer shared among logs. Only the single consumer thread may call this method.
+	 * @return The tag of the log to which the next entry belongs, or -1 if the buffer is empty.
+	 * @see #put(ELFF, int, Entry)
+	 */
+	int peekTag() {
+		lock.lock();
+		try {
+			if(committedPosition == readPosition) {
+				return -1;
+			}
+		} finally {
+			lock.unlock();
+		}
+		return getInt(readPosition + RECORD_HEADER_LENGTH); //producers never write to the space of a waiting record
+	}
+
+	/**
+	 * Formats the next entry of a buffer shared among logs as ELFF text. Only the single consumer thread may call this method, and only when an entry is
+	 * available. The formatted entry includes the ending newline character.
+	 * @param elff The log to which the entry belongs, as identified by its tag.
+	 * @param stringBuilder The string builder for formatting the entry.
+	 * @see #peekTag()
+	 */
+	void poll(final ELFF elff, final StringBuilder stringBuilder) {
+		read(elff, stringBuilder);
+	}
+
+	/**
+	 * Discards the next entry without formatting it. Only the single consumer thread may call this method, and only when an entry is available.
+	 * @see #peekTag()
+	 */
+	void skip() {
+		release(readPosition, getInt(readPosition));
+	}
+
+	/**
+	 * Determines the number of bytes needed to serialize an entry, including the record header.
+	 * @param elff The log to which the entry belongs.
+	 * @param entry The entry to serialize.
+	 * @return The length of the serialized record.
+	 * @throws IllegalArgumentException if the serialized entry is larger than the capacity of the buffer.
+	 * @throws ClassCastException if a value of the entry is not compatible with its field's type.
+	 */
+	private int getRecordLength(final ELFF elff, final Entry entry) {
+		long length = recordHeaderLength;
+		for(int i = 0, fieldCount = elff.getFieldCount(); i < fieldCount; ++i) {
+			final Field<?> field = elff.getField(i);
+			final Object value = entry.getFieldValue(field);
+			++length; //the value marker
+			if(value != null) {
+				final FieldType fieldType = field.getType();
+				switch(fieldType) {
+					case FIXED:
+						((Number)value).doubleValue(); //make sure the type is correct before modifying the buffer
+						length += 8;
+						break;
+					case INTEGER:
+						((Number)value).intValue();
+						length += 4;
+						break;
+					case DATE:
+					case TIME:
+						((Date)value).getTime();
+						length += 8;
+						break;
+					case URI:
+						length += 4 + getEncodedLength(((URI)value).toString());
+						break;
+					case STRING:
+					case ADDRESS:
+						length += 4 + getEncodedLength((String)value);
+						break;
+					default:
+						throw new AssertionError("Unrecognized field type: " + fieldType);
+				}
+			}
+		}
+		if(length > getCapacity()) {
+			throw new IllegalArgumentException("Entry length " + length + " exceeds buffer capacity " + getCapacity() + ".");
+		}
+		return (int)length;
+	}
+
+	/**
+	 * Serializes an entry as a record in the scratch buffer of the current thread. No lock is needed.
+	 * @param elff The log to which the entry belongs.
+	 * @param tag The tag identifying the log, which is only stored if the buffer is shared among logs.
+	 * @param entry The entry to serialize.
+	 * @return The scratch buffer, positioned at the start of the record and limited to its end.
+	 * @throws IllegalArgumentException if the serialized entry is larger than the capacity of the buffer.
+	 * @throws ClassCastException if a value of the entry is not compatible with its field's type.
+	 */
+	private ByteBuffer serialize(final ELFF elff, final int tag, final Entry entry) {
+		final int recordLength = getRecordLength(elff, entry);
+		ByteBuffer record = SCRATCH_BUFFER.get();
+		if(record.capacity() < recordLength) {
+			record = ByteBuffer.allocate(Math.max(recordLength, record.capacity() * 2));
+			SCRATCH_BUFFER.set(record);
+		}
+		record.clear();
+		record.putInt(recordLength);
+		if(recordHeaderLength == TAGGED_RECORD_HEADER_LENGTH) {
+			record.putInt(tag);
+		}
+		for(int i = 0, fieldCount = elff.getFieldCount(); i < fieldCount; ++i) {
+			final Field<?> field = elff.getField(i);
+			final Object value = entry.getFieldValue(field);
+			if(value == null) {
+				record.put(NULL_VALUE_MARKER);
+				continue;
+			}
+			record.put(VALUE_MARKER);
+			switch(field.getType()) {
+				case FIXED:
+					record.putLong(Double.doubleToRawLongBits(((Number)value).doubleValue()));
+					break;
+				case INTEGER:
+					record.putInt(((Number)value).intValue());
+					break;
+				case DATE:
+				case TIME:
+					record.putLong(((Date)value).getTime());
+					break;
+				case URI:
+					putString(record, ((URI)value).toString());
+					break;
+				default: //STRING, ADDRESS
+					putString(record, (String)value);
+					break;
+			}
+		}
+		assert record.position() == recordLength : "Serialized entry length does not match calculated length.";
+		record.flip();
+		return record;
+	}
+
+	/**
+	 * Copies a serialized record into space reserved for it, using at most two bulk copies if the space wraps around the end of the buffer. The lock need not be
+	 * held, as no other thread writes to or reads from reserved space until the record has been committed.
+	 * @param recordStart The unwrapped position of the reserved space.
+	 * @param record The serialized record, which will be consumed.
+	 * @see #commit(long, int)
+	 */
+	private void copy(final long recordStart, final ByteBuffer record) {
+		final ByteBuffer target = buffer.duplicate(); //each producer needs its own position in the shared buffer
+		final int index = (int)(recordStart % getCapacity());
+		final int recordEnd = record.limit();
+		record.limit(record.position() + Math.min(record.remaining(), getCapacity() - index));
+		target.position(index);
+		target.put(record);
+		record.limit(recordEnd);
+		if(record.hasRemaining()) { //wrap around to the start of the buffer
+			target.position(0);
+			target.put(record);
+		}
+	}
+
+	/**
+	 * Makes a record that has been copied into its reserved space available to the consumer and signals the consumer. Because the consumer reads records in
+	 * order, this method first waits for the records reserved before this one to be committed; their producers are already copying them without the lock.
+	 * @param recordStart The unwrapped position of the record.
+	 * @param recordLength The length of the record, including the header.
+	 */
+	private void commit(final long recordStart, final int recordLength) {
+		lock.lock();
+		try {
+			while(committedPosition != recordStart) { //the reserved space cannot be abandoned, so waiting may not be interrupted
+				committed.awaitUninterruptibly();
+			}
+			committedPosition = recordStart + recordLength;
+			committed.signalAll();
+			notEmpty.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Formats the record at the current read position and then releases its space. Only the single consumer thread may call this method, and only when at least
+	 * one record is available; the record itself is read without holding the lock, as producers never write to the space it occupies. The space is released even
+	 * if formatting fails, so that a record that cannot be formatted never blocks producers.
+	 * @param elff The log to which the entry belongs.
+	 * @param stringBuilder The string builder for formatting the entry.
+	 */
+	@SuppressWarnings("unchecked")
+	private void read(final ELFF elff, final StringBuilder stringBuilder) {
+		final long recordStart = readPosition;
+		final int recordLength = getInt(recordStart);
+		try {
+			long position = recordStart + recordHeaderLength;
+			final int fieldCount = elff.getFieldCount();
+			for(int i = 0; i < fieldCount; ++i) {
+				if(i > 0) {
+					stringBuilder.append(' '); //separate the field values
+				}
+				final Field<Object> field = (Field<Object>)elff.getField(i);
+				if(getByte(position++) == NULL_VALUE_MARKER) {
+					ELFF.formatFieldValue(stringBuilder, field, null);
+					continue;
+				}
+				switch(field.getType()) {
+					case FIXED:
+						ELFF.formatFieldValue(stringBuilder, field, Double.longBitsToDouble(getLong(position)));
+						position += 8;
+						break;
+					case INTEGER:
+						ELFF.formatFieldValue(stringBuilder, field, getInt(position));
+						position += 4;
+						break;
+					case DATE:
+					case TIME:
+						ELFF.formatFieldValue(stringBuilder, field, new Date(getLong(position)));
+						position += 8;
+						break;
+					case STRING: {
+						final StringBuilder valueStringBuilder = new StringBuilder();
+						position = getString(position, valueStringBuilder);
+						elff.formatCachedFieldValue(stringBuilder, field, valueStringBuilder.toString()); //header values may already be encoded in the cache
+					}
+						break;
+					default: { //URI and ADDRESS values are formatted literally, so there is no need to create a URI just to format it again
+						final int valueStart = stringBuilder.length();
+						position = getString(position, stringBuilder);
+						if(stringBuilder.length() == valueStart) { //an empty value is formatted as if it were null
+							stringBuilder.append(ELFF.NULL_FIELD_VALUE);
+						}
+					}
+						break;
+				}
+			}
+			stringBuilder.append('\n'); //append an end-of-line character
+			assert position - recordStart == recordLength : "Formatted entry length does not match serialized length.";
+		} finally {
+			release(recordStart, recordLength);
+		}
+	}
+
+	/**
+	 * Releases the space of the record at the current read position so that producers may reuse it.
+	 * @param recordStart The unwrapped position of the record.
+	 * @param recordLength The length of the record, including the header.
+	 */
+	private void release(final long recordStart, final int recordLength) {
+		lock.lock();
+		try {
+			readPosition = recordStart + recordLength;
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Determines the number of bytes needed to encode a string. Each character is encoded individually in one to three bytes, in the manner of UTF-8 but without
+	 * combining surrogate pairs, so that characters can be decoded directly without intermediate storage.
+	 * @param string The string to encode.
+	 * @return The number of bytes in the encoded string, not including its length.
+	 */
+	private static long getEncodedLength(final String string) {
+		long length = 0;
+		for(int i = 0, charCount = string.length(); i < charCount; ++i) {
+			final char c = string.charAt(i);
+			length += c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+		}
+		return length;
+	}
+
+	/**
+	 * Stores a string in a record as its character count followed by its encoded characters.
+	 * @param record The buffer in which the record is being serialized.
+	 * @param string The string to store.
+	 * @see #getEncodedLength(String)
+	 */
+	private static void putString(final ByteBuffer record, final String string) {
+		final int charCount = string.length();
+		record.putInt(charCount);
+		for(int i = 0; i < charCount; ++i) {
+			final char c = string.charAt(i);
+			if(c < 0x80) {
+				record.put((byte)c);
+			} else if(c < 0x800) {
+				record.put((byte)(0xC0 | (c >> 6)));
+				record.put((byte)(0x80 | (c & 0x3F)));
+			} else {
+				record.put((byte)(0xE0 | (c >> 12)));
+				record.put((byte)(0x80 | ((c >> 6) & 0x3F)));
+				record.put((byte)(0x80 | (c & 0x3F)));
+			}
+		}
+	}
+
+	/**
+	 * Retrieves a byte from the buffer.
+	 * @param position The unwrapped position of the byte.
+	 * @return The byte at the given position.
+	 */
+	private byte getByte(final long position) {
+		return buffer.get((int)(position % getCapacity()));
+	}
+
+	/**
+	 * Retrieves an integer from the buffer, wrapping to the start of the buffer if necessary.
+	 * @param position The unwrapped position of the integer.
+	 * @return The integer at the given position.
+	 */
+	private int getInt(final long position) {
+		final int index = (int)(position % getCapacity());
+		if(index + 4 <= getCapacity()) {
+			return buffer.getInt(index);
+		}
+		int value = 0;
+		for(int i = 0; i < 4; ++i) {
+			value = (value << 8) | (getByte(position + i) & 0xFF);
+		}
+		return value;
+	}
+
+	/**
+	 * Retrieves a long integer from the buffer, wrapping to the start of the buffer if necessary.
+	 * @param position The unwrapped position of the long integer.
+	 * @return The long integer at the given position.
+	 */
+	private long getLong(final long position) {
+		final int index = (int)(position % getCapacity());
+		if(index + 8 <= getCapacity()) {
+			return buffer.getLong(index);
+		}
+		long value = 0;
+		for(int i = 0; i < 8; ++i) {
+			value = (value << 8) | (getByte(position + i) & 0xFF);
+		}
+		return value;
+	}
+
+	/**
+	 * Retrieves a string from the buffer, appending its characters to a string builder.
+	 * @param position The unwrapped position of the string.
+	 * @param stringBuilder The string builder to which the characters of the string should be appended.
+	 * @return The position after the string.
+	 * @see #putString(ByteBuffer, String)
+	 */
+	private long getString(long position, final StringBuilder stringBuilder) {
+		final int charCount = getInt(position);
+		position += 4;
+		for(int i = 0; i < charCount; ++i) {
+			final int b = getByte(position++) & 0xFF;
+			if(b < 0x80) {
+				stringBuilder.append((char)b);
+			} else if(b < 0xE0) {
+				stringBuilder.append((char)(((b & 0x1F) << 6) | (getByte(position++) & 0x3F)));
+			} else {
+				final int b2 = getByte(position++) & 0x3F;
+				stringBuilder.append((char)(((b & 0x0F) << 12) | (b2 << 6) | (getByte(position++) & 0x3F)));
+			}
+		}
+		return position;
+	}
+}
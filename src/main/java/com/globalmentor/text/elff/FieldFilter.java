@@ -0,0 +1,481 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.text.elff;
+
+import java.text.ParseException;
+import java.util.*;
+
+import static java.util.Objects.*;
+
+/**
+ * A filter of log entries based upon the values of their fields, which can be evaluated directly on raw entry lines.
+ * <p>
+ * A field filter is compiled against the layout of fields of a particular log using {@link #compile(ELFF)}. The resulting {@link LineFilter} locates only the
+ * field values it needs by skipping field separators, and compares the formatted characters of those values directly, so that lines that do not match can be
+ * rejected before any {@link Entry} is created and without decoding field values. A field not present in the log is considered to have no value.
+ * </p>
+ * <p>
+ * Filters are immutable and thread-safe.
+ * </p>
+ */
+public abstract class FieldFilter {
+
+	/** Package-private constructor, as only the filters created by the static factory methods are supported. */
+	FieldFilter() {
+	}
+
+	/**
+	 * Collects the fields this filter tests.
+	 * @param fields The set to which the tested fields should be added.
+	 */
+	abstract void collectFields(Set<Field<?>> fields);
+
+	/**
+	 * Compiles this filter to a node that tests located field values.
+	 * @param slotMap The slot of each tested field in the array of located field value offsets, or -1 for fields not in the log.
+	 * @return A node for testing located field values.
+	 */
+	abstract Node compileNode(Map<Field<?>, Integer> slotMap);
+
+	/** A compiled filter node, testing field values that have been located in a line. */
+	interface Node {
+
+		/**
+		 * Tests located field values.
+		 * @param line The entry line.
+		 * @param offsets The start and end of each located field value, in the order of their slots.
+		 * @return <code>true</code> if the line matches.
+		 * @throws ParseException if a tested value is not valid for its field.
+		 */
+		boolean test(CharSequence line, int[] offsets) throws ParseException;
+	}
+
+	/**
+	 * Compiles this filter for the layout of fields of the given log.
+	 * @param elff The log describing the layout of the lines to filter.
+	 * @return A filter of raw entry lines of the log.
+	 * @throws NullPointerException if the given log is <code>null</code>.
+	 */
+	public LineFilter compile(final ELFF elff) {
+		final Set<Field<?>> fields = new HashSet<Field<?>>();
+		collectFields(fields);
+		final SortedMap<Integer, Field<?>> columnFieldMap = new TreeMap<Integer, Field<?>>(); //the fields present in the log, in column order
+		for(final Field<?> field : fields) {
+			final int column = elff.getFieldIndex(field);
+			if(column >= 0) {
+				columnFieldMap.put(Integer.valueOf(column), field);
+			}
+		}
+		final int[] columns = new int[columnFieldMap.size()];
+		final Map<Field<?>, Integer> slotMap = new HashMap<Field<?>, Integer>();
+		for(final Field<?> field : fields) {
+			slotMap.put(field, Integer.valueOf(-1)); //assume the field is missing
+		}
+		int slot = 0;
+		for(final Map.Entry<Integer, Field<?>> columnField : columnFieldMap.entrySet()) {
+			columns[slot] = columnField.getKey().intValue();
+			slotMap.put(columnField.getValue(), Integer.valueOf(slot));
+			++slot;
+		}
+		return new CompiledLineFilter(columns, compileNode(slotMap));
+	}
+
+	/** A line filter that locates the needed field values and then tests them with a compiled node. */
+	private static class CompiledLineFilter implements LineFilter {
+
+		/** The columns of the needed field values, in ascending order. */
+		private final int[] columns;
+
+		/** The compiled node for testing the located values. */
+		private final Node node;
+
+		/**
+		 * Constructor.
+		 * @param columns The columns of the needed field values, in ascending order.
+		 * @param node The compiled node for testing the located values.
+		 */
+		CompiledLineFilter(final int[] columns, final Node node) {
+			this.columns = columns;
+			this.node = node;
+		}
+
+		@Override
+		public boolean test(final CharSequence line) throws ParseException {
+			final int[] offsets = new int[columns.length * 2];
+			final int length = line.length();
+			int index = 0;
+			int column = 0;
+			for(int slot = 0; slot < columns.length; ++slot) {
+				final int targetColumn = columns[slot];
+				while(true) {
+					while(index < length && ELFF.isFieldSeparator(line.charAt(index))) { //skip the separator between field values
+						++index;
+					}
+					if(index == length || line.charAt(index) == '\n' || line.charAt(index) == '\r') { //if the line ran out of values
+						throw new ParseException("Entry has " + column + " field values; expected at least " + (columns[columns.length - 1] + 1) + ".", index);
+					}
+					final int start = index;
+					while(index < length && !ELFF.isFieldSeparator(line.charAt(index)) && line.charAt(index) != '\n' && line.charAt(index) != '\r') { //skip the value
+						++index;
+					}
+					if(column++ == targetColumn) {
+						offsets[slot * 2] = start;
+						offsets[slot * 2 + 1] = index;
+						break;
+					}
+				}
+			}
+			return node.test(line, offsets);
+		}
+	}
+
+	/**
+	 * Creates a filter accepting entries that match all of the given filters.
+	 * @param filters The filters to combine.
+	 * @return A conjunction of the given filters.
+	 * @throws NullPointerException if the given filters are <code>null</code>.
+	 */
+	public static FieldFilter and(final FieldFilter... filters) {
+		return new Junction(true, filters);
+	}
+
+	/**
+	 * Creates a filter accepting entries that match any of the given filters.
+	 * @param filters The filters to combine.
+	 * @return A disjunction of the given filters.
+	 * @throws NullPointerException if the given filters are <code>null</code>.
+	 */
+	public static FieldFilter or(final FieldFilter... filters) {
+		return new Junction(false, filters);
+	}
+
+	/**
+	 * Creates a filter accepting entries the given field of which has a value equal to the given value. The value is formatted and compared with the formatted
+	 * value in each line, so this filter may be used with fields of any type. For {@link FieldType#STRING} fields, as the encoding is ambiguous where the value
+	 * contains a space or plus, such matches are confirmed by decoding the value, so that the filter accepts exactly the entries the value of which would be
+	 * parsed as equal.
+	 * @param <T> The type of value of the field.
+	 * @param field The field to test.
+	 * @param value The value to match, or <code>null</code> to match entries with no value for the field.
+	 * @return A filter testing the field value.
+	 * @throws NullPointerException if the given field is <code>null</code>.
+	 * @throws ClassCastException if the given value is not compatible with the field's type.
+	 */
+	public static <T> FieldFilter equalTo(final Field<T> field, final T value) {
+		final String formattedValue = ELFF.formatFieldValue(new StringBuilder(), requireNonNull(field, "Field cannot be null."), value).toString();
+		final boolean isConfirmationNeeded = value != null && field.getType() == FieldType.STRING && formattedValue.indexOf('+') >= 0;
+		return new Leaf(field) {
+			@Override
+			boolean test(final CharSequence line, final int start, final int end) {
+				if(end - start != formattedValue.length() || !regionMatches(line, start, end, formattedValue)) {
+					return false;
+				}
+				return !isConfirmationNeeded || ELFF.decodeString(line, start, end).equals(value);
+			}
+		};
+	}
+
+	/**
+	 * Creates a filter accepting entries the given numeric field of which has a value greater than or equal to the given value. Entries with no value for the
+	 * field are not accepted, and a value that is not a valid number is reported as a {@link ParseException} by the compiled filter.
+	 * @param field The {@link FieldType#INTEGER} or {@link FieldType#FIXED} field to test.
+	 * @param value The minimum value to accept.
+	 * @return A filter testing the field value.
+	 * @throws NullPointerException if the given field is <code>null</code>.
+	 * @throws IllegalArgumentException if the field is not numeric.
+	 */
+	public static FieldFilter atLeast(final Field<? extends Number> field, final double value) {
+		return new NumberLeaf(field, value, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Creates a filter accepting entries the given numeric field of which has a value less than or equal to the given value. Entries with no value for the field
+	 * are not accepted, and a value that is not a valid number is reported as a {@link ParseException} by the compiled filter.
+	 * @param field The {@link FieldType#INTEGER} or {@link FieldType#FIXED} field to test.
+	 * @param value The maximum value to accept.
+	 * @return A filter testing the field value.
+	 * @throws NullPointerException if the given field is <code>null</code>.
+	 * @throws IllegalArgumentException if the field is not numeric.
+	 */
+	public static FieldFilter atMost(final Field<? extends Number> field, final double value) {
+		return new NumberLeaf(field, Double.NEGATIVE_INFINITY, value);
+	}
+
+	/**
+	 * Creates a filter accepting entries the given field of which has a value beginning with the given prefix. Entries with no value for the field are not
+	 * accepted. For {@link FieldType#STRING} fields the prefix is encoded and compared with the encoded value; as that encoding is ambiguous where a prefix
+	 * contains a space or plus, such matches are confirmed by decoding the value.
+	 * @param field The {@link FieldType#STRING}, {@link FieldType#URI}, or {@link FieldType#ADDRESS} field to test.
+	 * @param prefix The prefix to match.
+	 * @return A filter testing the field value.
+	 * @throws NullPointerException if the given field and/or prefix is <code>null</code>.
+	 * @throws IllegalArgumentException if the field is not a string, URI, or address field.
+	 */
+	public static FieldFilter startsWith(final Field<?> field, final String prefix) {
+		final FieldType fieldType = field.getType();
+		if(fieldType != FieldType.STRING && fieldType != FieldType.URI && fieldType != FieldType.ADDRESS) {
+			throw new IllegalArgumentException("Field " + field.getIdentifier() + " of type " + fieldType + " does not support prefix matching.");
+		}
+		final String encodedPrefix = fieldType == FieldType.STRING ? ELFF.encodeString(prefix) : requireNonNull(prefix, "Prefix cannot be null.");
+		final boolean isConfirmationNeeded = fieldType == FieldType.STRING && encodedPrefix.indexOf('+') >= 0;
+		return new Leaf(field) {
+			@Override
+			boolean test(final CharSequence line, final int start, final int end) {
+				if(ELFF.isNullFieldValue(line, start, end) || !regionMatches(line, start, end, encodedPrefix)) {
+					return false;
+				}
+				return !isConfirmationNeeded || ELFF.decodeString(line, start, end).startsWith(prefix);
+			}
+		};
+	}
+
+	/**
+	 * Creates a filter accepting entries the given address field of which has an IPv4 address within the given inclusive range. Entries with no value for the
+	 * field or with a value that is not an IPv4 address are not accepted.
+	 * @param field The address field to test.
+	 * @param firstAddress The first IPv4 address of the range, in dotted decimal form.
+	 * @param lastAddress The last IPv4 address of the range, in dotted decimal form.
+	 * @return A filter testing the field value.
+	 * @throws NullPointerException if the given field and/or addresses are <code>null</code>.
+	 * @throws IllegalArgumentException if either address is not a valid IPv4 address.
+	 */
+	public static FieldFilter addressInRange(final Field<String> field, final String firstAddress, final String lastAddress) {
+		final long first = parseIPv4Address(firstAddress, 0, firstAddress.length());
+		final long last = parseIPv4Address(lastAddress, 0, lastAddress.length());
+		if(first < 0 || last < 0) {
+			throw new IllegalArgumentException("Invalid IPv4 address range: " + firstAddress + " - " + lastAddress);
+		}
+		return new Leaf(field) {
+			@Override
+			boolean test(final CharSequence line, final int start, final int end) {
+				final long address = parseIPv4Address(line, start, end);
+				return address >= first && address <= last;
+			}
+		};
+	}
+
+	/**
+	 * Determines whether the characters of a region begin with the given prefix.
+	 * @param line The line containing the region.
+	 * @param start The start of the region.
+	 * @param end The end of the region.
+	 * @param prefix The prefix to match.
+	 * @return <code>true</code> if the region begins with the prefix.
+	 */
+	private static boolean regionMatches(final CharSequence line, final int start, final int end, final String prefix) {
+		final int prefixLength = prefix.length();
+		if(end - start < prefixLength) {
+			return false;
+		}
+		for(int i = 0; i < prefixLength; ++i) {
+			if(line.charAt(start + i) != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Parses an IPv4 address in dotted decimal form.
+	 * @param charSequence The character sequence containing the address.
+	 * @param start The index of the first character of the address.
+	 * @param end The index after the last character of the address.
+	 * @return The address as an unsigned 32-bit value, or -1 if the characters are not an IPv4 address.
+	 */
+	private static long parseIPv4Address(final CharSequence charSequence, final int start, final int end) {
+		long address = 0;
+		int octetCount = 0;
+		int index = start;
+		while(index < end) {
+			int octet = 0;
+			final int octetStart = index;
+			while(index < end && index - octetStart < 3) {
+				final char c = charSequence.charAt(index);
+				if(c < '0' || c > '9') {
+					break;
+				}
+				octet = octet * 10 + (c - '0');
+				++index;
+			}
+			if(index == octetStart || octet > 255 || ++octetCount > 4) {
+				return -1;
+			}
+			address = (address << 8) | octet;
+			if(index < end) {
+				if(charSequence.charAt(index) != '.' || octetCount == 4) {
+					return -1;
+				}
+				++index;
+				if(index == end) { //trailing dot
+					return -1;
+				}
+			}
+		}
+		return octetCount == 4 ? address : -1;
+	}
+
+	/** A filter testing the value of a single field. */
+	private abstract static class Leaf extends FieldFilter {
+
+		/** The field to test. */
+		private final Field<?> field;
+
+		/**
+		 * Field constructor.
+		 * @param field The field to test.
+		 * @throws NullPointerException if the given field is <code>null</code>.
+		 */
+		Leaf(final Field<?> field) {
+			this.field = requireNonNull(field, "Field cannot be null.");
+		}
+
+		@Override
+		void collectFields(final Set<Field<?>> fields) {
+			fields.add(field);
+		}
+
+		@Override
+		Node compileNode(final Map<Field<?>, Integer> slotMap) {
+			final int slot = slotMap.get(field).intValue();
+			if(slot < 0) { //if the field isn't in the log, it never has a value
+				final boolean result;
+				try {
+					result = test(ELFF.NULL_FIELD_VALUE, 0, ELFF.NULL_FIELD_VALUE.length());
+				} catch(final ParseException parseException) {
+					throw new AssertionError("No value is never invalid.", parseException);
+				}
+				return new Node() {
+					@Override
+					public boolean test(final CharSequence line, final int[] offsets) {
+						return result;
+					}
+				};
+			}
+			return new Node() {
+				@Override
+				public boolean test(final CharSequence line, final int[] offsets) throws ParseException {
+					return Leaf.this.test(line, offsets[slot * 2], offsets[slot * 2 + 1]);
+				}
+			};
+		}
+
+		/**
+		 * Tests the formatted value of the field.
+		 * @param line The line containing the formatted value.
+		 * @param start The index of the first character of the formatted value.
+		 * @param end The index after the last character of the formatted value.
+		 * @return <code>true</code> if the value matches.
+		 * @throws ParseException if the value is not valid for the field.
+		 */
+		abstract boolean test(CharSequence line, int start, int end) throws ParseException;
+	}
+
+	/** A filter testing whether a numeric field value lies within a range. */
+	private static class NumberLeaf extends Leaf {
+
+		/** Whether the field is an integer field. */
+		private final boolean isInteger;
+
+		/** The minimum value to accept. */
+		private final double minimum;
+
+		/** The maximum value to accept. */
+		private final double maximum;
+
+		/**
+		 * Constructor.
+		 * @param field The field to test.
+		 * @param minimum The minimum value to accept.
+		 * @param maximum The maximum value to accept.
+		 * @throws IllegalArgumentException if the field is not numeric.
+		 */
+		NumberLeaf(final Field<? extends Number> field, final double minimum, final double maximum) {
+			super(field);
+			final FieldType fieldType = field.getType();
+			if(fieldType != FieldType.INTEGER && fieldType != FieldType.FIXED) {
+				throw new IllegalArgumentException("Field " + field.getIdentifier() + " of type " + fieldType + " is not numeric.");
+			}
+			isInteger = fieldType == FieldType.INTEGER;
+			this.minimum = minimum;
+			this.maximum = maximum;
+		}
+
+		@Override
+		boolean test(final CharSequence line, final int start, final int end) throws ParseException {
+			if(ELFF.isNullFieldValue(line, start, end)) {
+				return false;
+			}
+			final double value;
+			try {
+				value = isInteger ? ELFF.parseInteger(line, start, end) : ELFF.parseFixed(line, start, end);
+			} catch(final IllegalArgumentException illegalArgumentException) {
+				throw (ParseException)new ParseException(illegalArgumentException.getMessage(), start).initCause(illegalArgumentException);
+			}
+			return value >= minimum && value <= maximum;
+		}
+	}
+
+	/** A conjunction or disjunction of filters. */
+	private static class Junction extends FieldFilter {
+
+		/** <code>true</code> if all filters must match, or <code>false</code> if any filter may match. */
+		private final boolean isConjunction;
+
+		/** The filters to combine. */
+		private final FieldFilter[] filters;
+
+		/**
+		 * Constructor.
+		 * @param isConjunction <code>true</code> if all filters must match, or <code>false</code> if any filter may match.
+		 * @param filters The filters to combine.
+		 * @throws NullPointerException if the given filters, or any of them, are <code>null</code>.
+		 */
+		Junction(final boolean isConjunction, final FieldFilter... filters) {
+			this.isConjunction = isConjunction;
+			this.filters = requireNonNull(filters, "Filters cannot be null.").clone();
+			for(final FieldFilter filter : this.filters) {
+				requireNonNull(filter, "Filter cannot be null.");
+			}
+		}
+
+		@Override
+		void collectFields(final Set<Field<?>> fields) {
+			for(final FieldFilter filter : filters) {
+				filter.collectFields(fields);
+			}
+		}
+
+		@Override
+		Node compileNode(final Map<Field<?>, Integer> slotMap) {
+			final Node[] nodes = new Node[filters.length];
+			for(int i = 0; i < filters.length; ++i) {
+				nodes[i] = filters[i].compileNode(slotMap);
+			}
+			return new Node() {
+				@Override
+				public boolean test(final CharSequence line, final int[] offsets) throws ParseException {
+					for(final Node node : nodes) {
+						if(node.test(line, offsets) != isConjunction) { //stop at the first failure of a conjunction or success of a disjunction
+							return !isConjunction;
+						}
+					}
+					return isConjunction;
+				}
+			};
+		}
+	}
+}
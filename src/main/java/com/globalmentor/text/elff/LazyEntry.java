@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.text.elff;
+
+import java.util.Arrays;
+
+import static java.util.Objects.*;
+
+/**
+ * An entry of the Extended Log File Format (ELFF) parsed from a line of a log, which decodes each field value only when it is first requested.
+ * <p>
+ * The entry keeps a reference to the original line along with the offsets of each field value in the line. The first call to {@link #getFieldValue(Field)}
+ * for a field of the log decodes the value of its column and caches the result. Values for fields not used in the log are stored as with any other entry.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ * @see ELFF#parseEntry(CharSequence)
+ */
+public class LazyEntry extends Entry {
+
+	/** The marker indicating that a field value has not yet been decoded. */
+	private static final Object UNDECODED = new Object();
+
+	/** The log the fields of which this entry contains. */
+	private final ELFF elff;
+
+	/** The line containing the formatted field values. */
+	private final CharSequence line;
+
+	/** The start and end offsets of each field value in the line, in the order of the fields of the log. */
+	private final int[] fieldOffsets;
+
+	/** The decoded field values, or {@link #UNDECODED} for those values that have not yet been decoded. */
+	private final Object[] fieldValues;
+
+	/**
+	 * Line constructor.
+	 * @param elff The log the fields of which this entry contains.
+	 * @param line The line containing the formatted field values.
+	 * @param fieldOffsets The start and end offsets of each field value in the line, in the order of the fields of the log.
+	 * @throws NullPointerException if the given log, line, and/or offsets are <code>null</code>.
+	 */
+	LazyEntry(final ELFF elff, final CharSequence line, final int[] fieldOffsets) {
+		this.elff = requireNonNull(elff, "ELFF cannot be null.");
+		this.line = requireNonNull(line, "Line cannot be null.");
+		this.fieldOffsets = requireNonNull(fieldOffsets, "Field offsets cannot be null.");
+		fieldValues = new Object[fieldOffsets.length / 2];
+		Arrays.fill(fieldValues, UNDECODED); //nothing has been decoded yet
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the field is one of the fields of the log, its value is decoded from the line the first time it is requested.
+	 * </p>
+	 * @throws IllegalArgumentException if the formatted value of the field is not valid for the field's type.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	//values are only decoded or stored using the type of the field, so we expect the returned type to be correct
+	public <T> T getFieldValue(final Field<T> field) {
+		final int fieldIndex = elff.getFieldIndex(field); //find out which column holds this field
+		if(fieldIndex < 0) { //if this field isn't in the line
+			return super.getFieldValue(field);
+		}
+		Object value = fieldValues[fieldIndex];
+		if(value == UNDECODED) { //if we haven't decoded this value yet
+			value = elff.decodeFieldValue(field, line, fieldOffsets[fieldIndex * 2], fieldOffsets[fieldIndex * 2 + 1]);
+			fieldValues[fieldIndex] = value; //cache the decoded value
+		}
+		return (T)value;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the field is one of the fields of the log, the given value replaces the value in the line.
+	 * </p>
+	 */
+	@Override
+	public <T> T setFieldValue(final Field<T> field, final T value) {
+		final int fieldIndex = elff.getFieldIndex(field); //find out which column holds this field
+		if(fieldIndex < 0) { //if this field isn't in the line
+			return super.setFieldValue(field, value);
+		}
+		final T oldValue = getFieldValue(field); //make sure the old value is decoded so that we can return it
+		fieldValues[fieldIndex] = value;
+		return oldValue;
+	}
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.text.elff;
+
+import java.text.ParseException;
+
+/**
+ * A filter of raw entry lines of a log in the Extended Log File Format (ELFF), compiled from a {@link FieldFilter} for a particular layout of fields.
+ * Implementations are thread-safe.
+ * @see FieldFilter#compile(ELFF)
+ */
+public interface LineFilter {
+
+	/**
+	 * Determines whether an entry line should be accepted, without parsing it into an entry. Only the field values needed by the filter are examined; a line
+	 * that is rejected is not otherwise validated.
+	 * @param line The entry line, with or without its ending newline.
+	 * @return <code>true</code> if the entry the line represents should be accepted.
+	 * @throws ParseException if the line does not contain the field values needed by the filter, or a needed value is not valid for its field.
+	 */
+	public boolean test(CharSequence line) throws ParseException;
+}
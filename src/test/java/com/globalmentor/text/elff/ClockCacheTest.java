@@ -0,0 +1,183 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.text.elff;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link ClockCache}.
+ * <p>
+ * A cache with a capacity of three has two segments, the first with two slots; small even {@link Integer} keys all fall into that first segment, so the
+ * tests of eviction order use such keys.
+ * </p>
+ */
+public class ClockCacheTest {
+
+	/** A loader that records each key it loads, and loads the key's string form. */
+	private static class RecordingLoader implements Function<Integer, String> {
+
+		/** The keys loaded, in order. */
+		final List<Integer> loadedKeys = new ArrayList<Integer>();
+
+		@Override
+		public String apply(final Integer key) {
+			loadedKeys.add(key);
+			return key.toString();
+		}
+	}
+
+	/** @see ClockCache#ClockCache(int) */
+	@Test
+	public void testConstructorRejectsInvalidCapacity() {
+		assertThrows(IllegalArgumentException.class, () -> new ClockCache<Integer, String>(0));
+		assertThrows(IllegalArgumentException.class, () -> new ClockCache<Integer, String>(-1));
+	}
+
+	/**
+	 * Tests that a value is loaded only on a miss, and that hits and misses are counted.
+	 * @see ClockCache#get(Object, Function)
+	 */
+	@Test
+	public void testGetLoadsOnlyOnMiss() {
+		final ClockCache<Integer, String> cache = new ClockCache<Integer, String>(16);
+		final RecordingLoader loader = new RecordingLoader();
+		assertThat(cache.getHitRate(), is(0.0));
+		final String value = cache.get(1, loader);
+		assertThat(value, is("1"));
+		assertThat(cache.get(1, loader), is(sameInstance(value)));
+		assertThat(cache.get(1, loader), is(sameInstance(value)));
+		assertThat(cache.get(2, loader), is("2"));
+		assertThat(loader.loadedKeys, is(Arrays.asList(1, 2)));
+		assertThat(cache.getHitCount(), is(2L));
+		assertThat(cache.getMissCount(), is(2L));
+		assertThat(cache.getHitRate(), is(0.5));
+		assertThat(cache.getEvictionCount(), is(0L));
+		assertThat(cache.getSize(), is(2));
+	}
+
+	/**
+	 * Tests that when no entry has been referenced, entries are evicted in the order in which they were added, as the clock hand sweeps the slots in order.
+	 * @see ClockCache#get(Object, Function)
+	 */
+	@Test
+	public void testGetEvictsUnreferencedEntriesInClockOrder() {
+		final ClockCache<Integer, String> cache = new ClockCache<Integer, String>(3);
+		final RecordingLoader loader = new RecordingLoader();
+		cache.get(0, loader);
+		cache.get(2, loader);
+		assertThat(cache.getEvictionCount(), is(0L));
+		cache.get(4, loader); //evicts 0, the oldest
+		cache.get(6, loader); //evicts 2
+		assertThat(cache.getEvictionCount(), is(2L));
+		cache.get(4, loader);
+		cache.get(6, loader);
+		assertThat(cache.getHitCount(), is(2L));
+		assertThat(loader.loadedKeys, is(Arrays.asList(0, 2, 4, 6)));
+		cache.get(0, loader);
+		assertThat(loader.loadedKeys, is(Arrays.asList(0, 2, 4, 6, 0)));
+		assertThat(cache.getMissCount(), is(5L));
+	}
+
+	/**
+	 * Tests that an entry referenced since the clock hand last passed it is given a second chance, so that an unreferenced entry is evicted instead, and that
+	 * the second chance is used up once the hand passes it.
+	 * @see ClockCache#get(Object, Function)
+	 */
+	@Test
+	public void testGetGivesReferencedEntrySecondChance() {
+		final ClockCache<Integer, String> cache = new ClockCache<Integer, String>(3);
+		final RecordingLoader loader = new RecordingLoader();
+		cache.get(0, loader);
+		cache.get(2, loader);
+		cache.get(0, loader); //reference 0
+		cache.get(4, loader); //the hand clears the reference bit of 0 and evicts 2
+		assertThat(cache.getEvictionCount(), is(1L));
+		cache.get(0, loader); //reference 0 again
+		assertThat(loader.loadedKeys, is(Arrays.asList(0, 2, 4)));
+		cache.get(6, loader); //the hand clears the reference bit of 0 again and evicts 4, which was never referenced
+		cache.get(6, loader);
+		assertThat(loader.loadedKeys, is(Arrays.asList(0, 2, 4, 6)));
+		cache.get(8, loader); //the hand is back at 0, which has not been referenced since, so 0 is evicted although 6 is newer
+		cache.get(6, loader);
+		assertThat(loader.loadedKeys, is(Arrays.asList(0, 2, 4, 6, 8)));
+		cache.get(0, loader);
+		assertThat(loader.loadedKeys, is(Arrays.asList(0, 2, 4, 6, 8, 0)));
+		assertThat(cache.getEvictionCount(), is(4L));
+		assertThat(cache.getHitCount(), is(4L));
+		assertThat(cache.getMissCount(), is(6L));
+	}
+
+	/**
+	 * Tests that clearing the cache removes all entries without affecting the statistics.
+	 * @see ClockCache#clear()
+	 */
+	@Test
+	public void testClearRemovesEntriesButKeepsCounts() {
+		final ClockCache<Integer, String> cache = new ClockCache<Integer, String>(3);
+		final RecordingLoader loader = new RecordingLoader();
+		for(int i = 0; i < 10; ++i) {
+			cache.get(i % 4, loader);
+		}
+		final long hitCount = cache.getHitCount();
+		final long missCount = cache.getMissCount();
+		final long evictionCount = cache.getEvictionCount();
+		assertThat(cache.getSize(), is(3));
+		cache.clear();
+		assertThat(cache.getSize(), is(0));
+		assertThat(cache.getHitCount(), is(hitCount));
+		assertThat(cache.getMissCount(), is(missCount));
+		assertThat(cache.getEvictionCount(), is(evictionCount));
+		loader.loadedKeys.clear();
+		cache.get(1, loader);
+		assertThat(loader.loadedKeys, is(Arrays.asList(1)));
+	}
+
+	/**
+	 * Tests that the cache never holds more entries than its capacity.
+	 * @see ClockCache#getCapacity()
+	 */
+	@Test
+	public void testSizeNeverExceedsCapacity() {
+		final ClockCache<Integer, String> cache = new ClockCache<Integer, String>(20);
+		final RecordingLoader loader = new RecordingLoader();
+		final Random random = new Random(30);
+		for(int i = 0; i < 1000; ++i) {
+			cache.get(random.nextInt(100), loader);
+			assertThat(cache.getSize(), is(lessThanOrEqualTo(cache.getCapacity())));
+		}
+		assertThat(cache.getSize(), is(20));
+		assertThat(cache.getMissCount() - cache.getEvictionCount(), is(20L));
+	}
+
+	/** @see ClockCache#get(Object, Function) */
+	@Test
+	public void testGetRejectsNullKeyAndNullValue() {
+		final ClockCache<Integer, String> cache = new ClockCache<Integer, String>(3);
+		assertThrows(NullPointerException.class, () -> cache.get(null, new RecordingLoader()));
+		assertThrows(NullPointerException.class, () -> cache.get(1, key -> null));
+		assertThat(cache.getSize(), is(0));
+	}
+
+}
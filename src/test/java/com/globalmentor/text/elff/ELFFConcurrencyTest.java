@@ -0,0 +1,365 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.text.elff;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Concurrency tests of {@link ELFF}, in the style of jcstress: in each trial, a set of actors is released at the same moment against a shared log, and the
+ * observed outcome is checked against the set of outcomes permitted by the contract of {@link ELFF}. Many trials are run so that a variety of interleavings
+ * is exercised.
+ * @see ELFFScalingHarness
+ */
+public class ELFFConcurrencyTest {
+
+	/** The number of trials of each race. */
+	private static final int TRIAL_COUNT = 2000;
+
+	/** The number of actors used for tests that share a log among many threads. */
+	private static final int THREAD_COUNT = 8;
+
+	/** The fields of the log under test, covering every field type. */
+	private static final Field<?>[] FIELDS = {Field.DATE_FIELD, Field.TIME_FIELD, Field.TIME_TAKEN_FIELD, Field.SERVER_CLIENT_STATUS_FIELD,
+			Field.CLIENT_IP_FIELD, Field.CLIENT_SERVER_URI_STEM_FIELD, Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD};
+
+	/**
+	 * Runs the given actors at the same time, each on its own thread, waiting for all of them to finish.
+	 * @param executorService The executor service providing a thread for each actor.
+	 * @param actors The actors to run.
+	 * @return The result of each actor, in order.
+	 * @throws Exception if any actor failed.
+	 */
+	private static List<Object> race(final ExecutorService executorService, final Callable<?>... actors) throws Exception {
+		final CyclicBarrier barrier = new CyclicBarrier(actors.length);
+		final List<Future<?>> futures = new ArrayList<Future<?>>(actors.length);
+		for(final Callable<?> actor : actors) {
+			futures.add(executorService.submit(new Callable<Object>() {
+				@Override
+				public Object call() throws Exception {
+					barrier.await(); //release all the actors together
+					return actor.call();
+				}
+			}));
+		}
+		final List<Object> results = new ArrayList<Object>(actors.length);
+		for(final Future<?> future : futures) {
+			try {
+				results.add(future.get(10, TimeUnit.SECONDS));
+			} catch(final ExecutionException executionException) {
+				final Throwable cause = executionException.getCause();
+				throw cause instanceof Exception ? (Exception)cause : new ExecutionException(cause);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Creates an entry with distinct values derived from the given seed.
+	 * @param seed The value from which to derive the field values.
+	 * @return A new entry.
+	 */
+	private static Entry createEntry(final int seed) {
+		final Date date = new Date(1760572800000L + seed * 7919L * 1000);
+		final Entry entry = new Entry();
+		entry.setFieldValue(Field.DATE_FIELD, date);
+		entry.setFieldValue(Field.TIME_FIELD, date);
+		entry.setFieldValue(Field.TIME_TAKEN_FIELD, seed / 1000.0);
+		entry.setFieldValue(Field.SERVER_CLIENT_STATUS_FIELD, 200 + seed % 400);
+		entry.setFieldValue(Field.CLIENT_IP_FIELD, "10.0." + seed % 256 + "." + seed / 256 % 256);
+		entry.setFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD, seed % 5 == 0 ? null : "/path " + seed + "+");
+		entry.setFieldValue(Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD, "Agent " + seed % 7);
+		return entry;
+	}
+
+	/**
+	 * Races a writer setting and removing a directive against a reader serializing the directives. The reader must see the directive either absent or with one
+	 * of the values written, never duplicated or partially written, alongside the directives that are always present.
+	 * @see ELFF#setDirective(String, String)
+	 * @see ELFF#serializeDirectives(com.globalmentor.model.NameValuePair...)
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testSetDirectiveRacingSerializeDirectives() throws Exception {
+		final ExecutorService executorService = Executors.newFixedThreadPool(2);
+		try {
+			for(int trial = 0; trial < TRIAL_COUNT; ++trial) {
+				final ELFF elff = new ELFF(FIELDS);
+				elff.setDirective(ELFF.REMARK_DIRECTIVE, "stable");
+				final List<Object> results = race(executorService, new Callable<Object>() {
+					@Override
+					public Object call() {
+						elff.setDirective(ELFF.SOFTWARE_DIRECTIVE, "first");
+						elff.setDirective(ELFF.SOFTWARE_DIRECTIVE, "second");
+						elff.setDirective(ELFF.SOFTWARE_DIRECTIVE, null);
+						return null;
+					}
+				}, new Callable<Object>() {
+					@Override
+					public Object call() throws Exception {
+						return elff.serializeDirectives();
+					}
+				});
+				final String directives = (String)results.get(1);
+				assertThat(directives, containsString("#" + ELFF.REMARK_DIRECTIVE + ": stable\n"));
+				assertThat(directives, containsString("#" + ELFF.VERSION_DIRECTIVE + ": " + ELFF.LATEST_VERSION + "\n"));
+				assertThat(directives, containsString("#" + ELFF.FIELDS_DIRECTIVE + ": "));
+				String outcome = "absent";
+				for(final String line : directives.split("\n")) {
+					assertThat(line, startsWith("#"));
+					if(line.startsWith("#" + ELFF.SOFTWARE_DIRECTIVE + ":")) {
+						assertThat("duplicate directive", outcome, is("absent"));
+						outcome = line.substring(ELFF.SOFTWARE_DIRECTIVE.length() + 3);
+					}
+				}
+				assertThat(Arrays.asList("absent", "first", "second"), hasItem(outcome));
+				assertThat(elff.getDirective(ELFF.SOFTWARE_DIRECTIVE), is(nullValue())); //the final removal is visible once the writer has finished
+			}
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	/**
+	 * Races actors setting different directives. No update may be lost.
+	 * @see ELFF#setDirective(String, String)
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testConcurrentSetDirectiveLosesNoUpdates() throws Exception {
+		final ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+		try {
+			for(int trial = 0; trial < TRIAL_COUNT / 10; ++trial) {
+				final ELFF elff = new ELFF(FIELDS);
+				final Callable<?>[] actors = new Callable<?>[THREAD_COUNT];
+				for(int i = 0; i < THREAD_COUNT; ++i) {
+					final String name = "X-Directive-" + i;
+					actors[i] = new Callable<Object>() {
+						@Override
+						public Object call() {
+							for(int j = 0; j < 10; ++j) {
+								elff.setDirective(name + "-" + j, name);
+							}
+							return elff.setDirective(name, name);
+						}
+					};
+				}
+				for(final Object oldValue : race(executorService, actors)) {
+					assertThat(oldValue, is(nullValue()));
+				}
+				final String directives = elff.serializeDirectives();
+				for(int i = 0; i < THREAD_COUNT; ++i) {
+					final String name = "X-Directive-" + i;
+					assertThat(elff.getDirective(name), is(name));
+					assertThat(directives, containsString("#" + name + ": " + name + "\n"));
+					for(int j = 0; j < 10; ++j) {
+						assertThat(elff.getDirective(name + "-" + j), is(name));
+					}
+				}
+			}
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	/**
+	 * Formats distinct entries from many threads against a shared log, both with and without a shared encoded header value cache. Every formatted entry must
+	 * be identical to the entry formatted on a single thread.
+	 * @see ELFF#formatEntry(StringBuilder, Entry)
+	 */
+	@Test
+	public void testSharedFormatEntryMatchesSingleThreadedFormatting() throws Exception {
+		final int entryCount = 2000;
+		final Entry[] entries = new Entry[entryCount];
+		final String[] expectedLines = new String[entryCount];
+		final ELFF referenceELFF = new ELFF(FIELDS);
+		for(int i = 0; i < entryCount; ++i) {
+			entries[i] = createEntry(i);
+			expectedLines[i] = referenceELFF.serializeEntry(entries[i]);
+		}
+		final ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+		try {
+			for(final boolean isCached : new boolean[] {false, true}) {
+				final ELFF elff = new ELFF(FIELDS);
+				if(isCached) {
+					elff.setEncodedHeaderValueCache(new ClockCache<String, char[]>(4)); //small enough to force evictions during the race
+				}
+				final Callable<?>[] actors = new Callable<?>[THREAD_COUNT];
+				for(int i = 0; i < THREAD_COUNT; ++i) {
+					final int offset = i;
+					actors[i] = new Callable<Integer>() {
+						@Override
+						public Integer call() {
+							final StringBuilder stringBuilder = new StringBuilder();
+							int mismatchCount = 0;
+							for(int j = 0; j < entryCount; ++j) {
+								final int index = (j + offset * 997) % entryCount; //have each actor visit the entries in a different order
+								stringBuilder.setLength(0);
+								if(!elff.formatEntry(stringBuilder, entries[index]).toString().equals(expectedLines[index])) {
+									++mismatchCount;
+								}
+							}
+							return mismatchCount;
+						}
+					};
+				}
+				for(final Object mismatchCount : race(executorService, actors)) {
+					assertThat("cached: " + isCached, mismatchCount, is((Object)0));
+				}
+			}
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	/**
+	 * Races formatting entries against changing directives on the same log. Directive changes must not disturb entry formatting, and every serialization of
+	 * the directives must remain well formed.
+	 * @see ELFF#formatEntry(StringBuilder, Entry)
+	 * @see ELFF#serializeDirectives(com.globalmentor.model.NameValuePair...)
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testFormatEntryRacingDirectiveChanges() throws Exception {
+		final Entry entry = createEntry(42);
+		final String expectedLine = new ELFF(FIELDS).serializeEntry(entry);
+		final ExecutorService executorService = Executors.newFixedThreadPool(3);
+		try {
+			for(int trial = 0; trial < TRIAL_COUNT / 10; ++trial) {
+				final ELFF elff = new ELFF(FIELDS);
+				final List<Object> results = race(executorService, new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						String line = null;
+						for(int i = 0; i < 50; ++i) {
+							line = elff.serializeEntry(entry);
+							if(!line.equals(expectedLine)) {
+								return line;
+							}
+						}
+						return line;
+					}
+				}, new Callable<Object>() {
+					@Override
+					public Object call() {
+						for(int i = 0; i < 50; ++i) {
+							elff.setDirective(ELFF.REMARK_DIRECTIVE + i % 5, i % 2 == 0 ? "value " + i : null);
+						}
+						return null;
+					}
+				}, new Callable<Boolean>() {
+					@Override
+					public Boolean call() throws Exception {
+						for(int i = 0; i < 20; ++i) {
+							for(final String line : elff.serializeDirectives().split("\n")) {
+								if(!line.startsWith("#") || line.indexOf(": ") < 0) {
+									return false;
+								}
+							}
+						}
+						return true;
+					}
+				});
+				assertThat(results.get(0), is((Object)expectedLine));
+				assertThat(results.get(2), is((Object)Boolean.TRUE));
+			}
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	/**
+	 * Races many producers submitting distinct entries to several logs sharing a multiplexer with a small buffer. No producer may fail, closing must succeed and
+	 * close every output, each log must have exactly as many entry lines as were submitted to it, and every submitted entry must be written exactly once, to its
+	 * own log.
+	 * @see ELFFMultiplexer#log(ELFF, Entry)
+	 * @see ELFFMultiplexer#close()
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testConcurrentLoggingWritesEachEntryOnce() throws Exception {
+		final int logCount = 3;
+		final int entryCount = 500; //per producer
+		final ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+		try {
+			for(int trial = 0; trial < 20; ++trial) {
+				final ELFF[] elffs = new ELFF[logCount];
+				final StringWriter[] writers = new StringWriter[logCount];
+				final boolean[] closed = new boolean[logCount];
+				final ELFFMultiplexer multiplexer = new ELFFMultiplexer(512, 16); //small enough that producers wait for room
+				for(int i = 0; i < logCount; ++i) {
+					final int logIndex = i;
+					elffs[i] = new ELFF(FIELDS);
+					writers[i] = new StringWriter();
+					multiplexer.register(elffs[i], new FilterWriter(writers[i]) {
+						@Override
+						public void close() throws IOException {
+							closed[logIndex] = true;
+							super.close();
+						}
+					});
+				}
+				final Callable<?>[] actors = new Callable<?>[THREAD_COUNT];
+				for(int i = 0; i < THREAD_COUNT; ++i) {
+					final int producer = i;
+					actors[i] = new Callable<Object>() {
+						@Override
+						public Object call() throws IOException {
+							for(int j = 0; j < entryCount; ++j) {
+								final Entry entry = createEntry(j);
+								entry.setFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD, "/" + producer + "/" + j); //identify the entry
+								multiplexer.log(elffs[(producer + j) % logCount], entry);
+							}
+							return null;
+						}
+					};
+				}
+				race(executorService, actors); //any producer failure is rethrown
+				multiplexer.close();
+				for(int i = 0; i < logCount; ++i) {
+					assertThat(closed[i], is(true));
+					final Set<String> expectedStems = new HashSet<String>();
+					for(int producer = 0; producer < THREAD_COUNT; ++producer) {
+						for(int j = 0; j < entryCount; ++j) {
+							if((producer + j) % logCount == i) {
+								expectedStems.add("/" + producer + "/" + j);
+							}
+						}
+					}
+					final List<String> stems = new ArrayList<String>();
+					for(final String line : writers[i].toString().split("\n")) {
+						if(!line.startsWith("#")) {
+							stems.add(elffs[i].parseEntry(line).getFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD));
+						}
+					}
+					assertThat(stems.size(), is(expectedStems.size()));
+					assertThat(new HashSet<String>(stems), is(expectedStems)); //with the same count, no entry may be duplicated
+				}
+			}
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.text.elff;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of {@link ELFFFollower}.
+ */
+public class ELFFFollowerTest {
+
+	/** The poll interval of the followers tested, in milliseconds. */
+	private static final long POLL_INTERVAL_MILLIS = 10;
+
+	/** The rotation grace period of the followers tested, in milliseconds. */
+	private static final long ROTATION_GRACE_PERIOD_MILLIS = 300;
+
+	/** The directory in which to create test log files. */
+	@TempDir
+	Path tempDirectory;
+
+	/**
+	 * Appends text to a file, creating the file if needed.
+	 * @param path The path of the file.
+	 * @param text The text to append.
+	 * @throws IOException if there was an error writing the file.
+	 */
+	private static void append(final Path path, final String text) throws IOException {
+		Files.write(path, text.getBytes(UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+
+	/**
+	 * Creates a follower of a file with the test poll interval and rotation grace period.
+	 * @param path The path of the file to follow.
+	 * @return A new follower.
+	 * @throws IOException if there was an error opening the file.
+	 */
+	private static ELFFFollower createFollower(final Path path) throws IOException {
+		return new ELFFFollower(path, null, POLL_INTERVAL_MILLIS, ROTATION_GRACE_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Reads the status of the next entry.
+	 * @param follower The follower.
+	 * @param timeoutMillis The maximum time to wait, in milliseconds.
+	 * @return The status of the next entry, or <code>null</code> if no entry became available.
+	 * @throws IOException if there was an error reading.
+	 * @throws InterruptedException if the thread was interrupted while waiting.
+	 */
+	private static Integer readStatus(final ELFFFollower follower, final long timeoutMillis) throws IOException, InterruptedException {
+		final Entry entry = follower.readEntry(timeoutMillis, TimeUnit.MILLISECONDS);
+		return entry != null ? entry.getFieldValue(Field.SERVER_CLIENT_STATUS_FIELD) : null;
+	}
+
+	/** Tests that appended entries are read, and that a trailing line is held back until it is complete. */
+	@Test
+	public void testReadEntryHoldsBackIncompleteLine() throws IOException, InterruptedException {
+		final Path path = tempDirectory.resolve("access.log");
+		append(path, "#Fields: sc-status cs-uri-stem\n200 /a\n20");
+		try (final ELFFFollower follower = createFollower(path)) {
+			assertThat(readStatus(follower, 1000), is(200));
+			assertThat(readStatus(follower, 50), is(nullValue()));
+			append(path, "4 /b\n");
+			assertThat(readStatus(follower, 1000), is(204));
+		}
+	}
+
+	/**
+	 * Tests that after a rotation a line completed late in the renamed file is still read, before any entries of the new file.
+	 * @see ELFFFollower#getDroppedFragmentCount()
+	 */
+	@Test
+	public void testRotationReadsLineCompletedInRenamedFile() throws IOException, InterruptedException {
+		final Path path = tempDirectory.resolve("access.log");
+		final Path rotatedPath = tempDirectory.resolve("access.log.1");
+		append(path, "#Fields: sc-status cs-uri-stem\n200 /a\n40");
+		try (final ELFFFollower follower = createFollower(path)) {
+			assertThat(readStatus(follower, 1000), is(200));
+			Files.move(path, rotatedPath);
+			append(path, "#Fields: sc-status cs-uri-stem\n500 /c\n");
+			assertThat(readStatus(follower, 50), is(nullValue())); //notices the rotation, but the old file may still grow
+			append(rotatedPath, "4 /b\n201 /b2\n");
+			assertThat(readStatus(follower, 1000), is(404));
+			assertThat(readStatus(follower, 1000), is(201));
+			assertThat(readStatus(follower, 2000), is(500));
+			assertThat(follower.getDroppedFragmentCount(), is(0L));
+		}
+	}
+
+	/** Tests that a trailing fragment of a rotated file that stops growing is dropped and reported, even if it has the expected number of values. */
+	@Test
+	public void testRotationDropsTrailingFragmentWithAllValues() throws IOException, InterruptedException {
+		final Path path = tempDirectory.resolve("access.log");
+		append(path, "#Fields: sc-status cs-uri-stem\n200 /a\n302 /b");
+		try (final ELFFFollower follower = createFollower(path)) {
+			assertThat(readStatus(follower, 1000), is(200));
+			Files.move(path, tempDirectory.resolve("access.log.1"));
+			append(path, "#Fields: sc-status cs-uri-stem\n500 /c\n");
+			assertThat(readStatus(follower, 2000), is(500));
+			assertThat(follower.getDroppedFragmentCount(), is(1L));
+		}
+	}
+
+	/** Tests that a trailing fragment of a rotated file cut inside a value is dropped and reported rather than returned as a shortened value. */
+	@Test
+	public void testRotationDropsTrailingFragmentCutInsideValue() throws IOException, InterruptedException {
+		final Path path = tempDirectory.resolve("access.log");
+		append(path, "#Fields: sc-status cs-uri-stem\n200 /a\n302 /long-pa");
+		try (final ELFFFollower follower = createFollower(path)) {
+			assertThat(readStatus(follower, 1000), is(200));
+			Files.move(path, tempDirectory.resolve("access.log.1"));
+			append(path, "#Fields: sc-status cs-uri-stem\n500 /c\n");
+			final Entry entry = follower.readEntry(2000, TimeUnit.MILLISECONDS);
+			assertThat(entry.getFieldValue(Field.SERVER_CLIENT_STATUS_FIELD), is(500));
+			assertThat(entry.getFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD), is("/c"));
+			assertThat(follower.getDroppedFragmentCount(), is(1L));
+		}
+	}
+
+	/** Tests that an unfinished trailing fragment of a rotated file that stops growing is dropped and reported. */
+	@Test
+	public void testRotationDropsUnfinishedTrailingFragment() throws IOException, InterruptedException {
+		final Path path = tempDirectory.resolve("access.log");
+		append(path, "#Fields: sc-status cs-uri-stem\n200 /a\n40");
+		try (final ELFFFollower follower = createFollower(path)) {
+			assertThat(readStatus(follower, 1000), is(200));
+			Files.move(path, tempDirectory.resolve("access.log.1"));
+			append(path, "#Fields: sc-status cs-uri-stem\n500 /c\n");
+			assertThat(readStatus(follower, 2000), is(500));
+			assertThat(follower.getDroppedFragmentCount(), is(1L));
+		}
+	}
+
+	/** Tests that a file truncated in place is read again from its beginning, dropping and reporting a trailing fragment cut inside a value. */
+	@Test
+	public void testTruncationDropsTrailingFragment() throws IOException, InterruptedException {
+		final Path path = tempDirectory.resolve("access.log");
+		append(path, "#Fields: sc-status cs-uri-stem\n200 /a\n302 /b-with-a-long-pa");
+		try (final ELFFFollower follower = createFollower(path)) {
+			assertThat(readStatus(follower, 1000), is(200));
+			try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+				channel.truncate(0);
+			}
+			append(path, "#Fields: sc-status cs-uri-stem\n500 /c\n");
+			assertThat(readStatus(follower, 1000), is(500));
+			assertThat(follower.getDroppedFragmentCount(), is(1L));
+		}
+	}
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.text.elff;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of {@link ELFFMergeReader}.
+ */
+public class ELFFMergeReaderTest {
+
+	/** The directory in which to create test log files. */
+	@TempDir
+	Path tempDirectory;
+
+	/**
+	 * Creates a log file.
+	 * @param name The name of the file.
+	 * @param lines The lines of the file, without line endings.
+	 * @return The path of the new file.
+	 * @throws IOException if there was an error writing the file.
+	 */
+	private Path createLog(final String name, final String... lines) throws IOException {
+		return Files.write(tempDirectory.resolve(name), Arrays.asList(lines), UTF_8);
+	}
+
+	/**
+	 * Tests that the decoded header value cache is shared by the entries of all files.
+	 * @see ELFFMergeReader#setDecodedHeaderValueCache(ClockCache)
+	 */
+	@Test
+	public void testSetDecodedHeaderValueCacheIsSharedAmongFiles() throws IOException {
+		final Path path1 = createLog("a.log", "#Fields: date time cs(User-Agent)", "2025-10-16 00:00:01:000 Agent+1", "2025-10-16 00:00:03:000 Agent+1");
+		final Path path2 = createLog("b.log", "#Fields: date time cs(User-Agent)", "2025-10-16 00:00:02:000 Agent+1");
+		final ClockCache<String, String> cache = new ClockCache<String, String>(16);
+		final List<String> userAgents = new ArrayList<String>();
+		try (final ELFFMergeReader reader = new ELFFMergeReader(Arrays.asList(path1, path2))) {
+			reader.setDecodedHeaderValueCache(cache);
+			Entry entry;
+			while((entry = reader.readEntry()) != null) {
+				userAgents.add(entry.getFieldValue(Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD));
+			}
+		}
+		assertThat(userAgents, hasSize(3));
+		for(final String userAgent : userAgents) {
+			assertThat(userAgent, is(sameInstance(userAgents.get(0))));
+		}
+		assertThat(cache.getSize(), is(1));
+	}
+
+	/**
+	 * Reads all remaining entries, returning the status of each.
+	 * @param reader The reader.
+	 * @return The statuses of the entries read.
+	 * @throws IOException if there was an error reading.
+	 */
+	private static List<Integer> readStatuses(final ELFFMergeReader reader) throws IOException {
+		final List<Integer> statuses = new ArrayList<Integer>();
+		Entry entry;
+		while((entry = reader.readEntry()) != null) {
+			statuses.add(entry.getFieldValue(Field.SERVER_CLIENT_STATUS_FIELD));
+		}
+		return statuses;
+	}
+
+	/**
+	 * Tests that entries of several files are returned in time order, with ties in file order.
+	 * @see ELFFMergeReader#readEntry()
+	 */
+	@Test
+	public void testReadEntryMergesFilesInTimeOrder() throws IOException {
+		final Path path1 = createLog("a.log", "#Fields: date time sc-status", "2025-10-16 00:00:01:000 1", "2025-10-16 00:00:03:000 3",
+				"2025-10-16 00:00:05:000 51");
+		final Path path2 = createLog("b.log.txt", "#Fields: sc-status date time", "2 2025-10-16 00:00:02:000", "52 2025-10-16 00:00:05:000");
+		final Path path3 = createLog("c.log");
+		try (final ELFFMergeReader reader = new ELFFMergeReader(Arrays.asList(path1, path2, path3))) {
+			assertThat(readStatuses(reader), is(Arrays.asList(1, 2, 3, 51, 52)));
+		}
+	}
+
+	/**
+	 * Tests that only entries within the time window are returned, and that a file whose first entry is at or after the end of the window is not read further.
+	 * @see ELFFMergeReader#ELFFMergeReader(java.util.Collection, Date, Date, int)
+	 */
+	@Test
+	public void testReadEntryReturnsOnlyEntriesInWindow() throws IOException {
+		final Path path1 = createLog("a.log", "#Fields: date time sc-status", "2025-10-16 00:00:01:000 1", "2025-10-16 00:00:02:000 2",
+				"2025-10-16 00:00:03:000 3", "2025-10-16 00:00:04:000 4");
+		final Path path2 = createLog("b.log", "#Fields: date time sc-status", "2025-10-16 00:00:04:000 40", "not a valid entry"); //never read beyond the first
+		final Date startDate = new Date(1760572802000L); //2025-10-16 00:00:02
+		final Date endDate = new Date(1760572804000L); //2025-10-16 00:00:04
+		try (final ELFFMergeReader reader = new ELFFMergeReader(Arrays.asList(path1, path2), startDate, endDate, 16)) {
+			assertThat(readStatuses(reader), is(Arrays.asList(2, 3)));
+		}
+	}
+
+	/**
+	 * Tests that a file that fails to be read is closed and dropped, without affecting the other files.
+	 * @see ELFFMergeReader#readEntry()
+	 */
+	@Test
+	public void testReadEntryDropsFileThatFails() throws IOException {
+		final Path path1 = createLog("a.log", "#Fields: date time sc-status", "2025-10-16 00:00:01:000 1", "not a valid entry", "2025-10-16 00:00:09:000 9");
+		final Path path2 = createLog("b.log", "#Fields: date time sc-status", "2025-10-16 00:00:02:000 2", "2025-10-16 00:00:03:000 3");
+		try (final ELFFMergeReader reader = new ELFFMergeReader(Arrays.asList(path1, path2))) {
+			assertThat(reader.readEntry().getFieldValue(Field.SERVER_CLIENT_STATUS_FIELD), is(1));
+			assertThrows(IOException.class, () -> reader.readEntry());
+			assertThat(readStatuses(reader), is(Arrays.asList(2, 3)));
+		}
+	}
+
+	/**
+	 * Tests that a file changing its fields partway through has the entries of each section decoded using that section's fields, and that the fields of the new
+	 * section are added to the union schema.
+	 * @see ELFFMergeReader#getELFF()
+	 */
+	@Test
+	public void testReadEntryFollowsFieldsChangedWithinFile() throws IOException {
+		final Path path1 = createLog("a.log", "#Fields: date time sc-status", "2025-10-16 00:00:01:000 1", "#Fields: cs-uri-stem date time sc-status",
+				"/new 2025-10-16 00:00:03:000 3");
+		final Path path2 = createLog("b.log", "#Fields: date time sc-status", "2025-10-16 00:00:02:000 2", "2025-10-16 00:00:04:000 4");
+		try (final ELFFMergeReader reader = new ELFFMergeReader(Arrays.asList(path1, path2))) {
+			assertThat(reader.getELFF().getFields(), not(hasItem(Field.CLIENT_SERVER_URI_STEM_FIELD)));
+			final List<Integer> statuses = new ArrayList<Integer>();
+			final List<String> uriStems = new ArrayList<String>();
+			Entry entry;
+			while((entry = reader.readEntry()) != null) {
+				statuses.add(entry.getFieldValue(Field.SERVER_CLIENT_STATUS_FIELD));
+				uriStems.add(entry.getFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD));
+				if(entry.getFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD) != null) {
+					assertThat(reader.getELFF().getFields(), hasItem(Field.CLIENT_SERVER_URI_STEM_FIELD));
+				}
+			}
+			assertThat(statuses, is(Arrays.asList(1, 2, 3, 4)));
+			assertThat(uriStems, is(Arrays.asList(null, null, "/new", null)));
+			assertThat(reader.getELFF().getFields(), contains(Field.DATE_FIELD, Field.TIME_FIELD, Field.SERVER_CLIENT_STATUS_FIELD, Field.CLIENT_SERVER_URI_STEM_FIELD));
+		}
+	}
+
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.text.elff;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link ELFFMultiplexer}.
+ */
+public class ELFFMultiplexerTest {
+
+	/** A log with a status field. */
+	private static final ELFF STATUS_ELFF = new ELFF(Field.SERVER_CLIENT_STATUS_FIELD);
+
+	/**
+	 * Creates an entry with a status.
+	 * @param status The status of the entry.
+	 * @return A new entry.
+	 */
+	private static Entry createEntry(final int status) {
+		final Entry entry = new Entry();
+		entry.setFieldValue(Field.SERVER_CLIENT_STATUS_FIELD, status);
+		return entry;
+	}
+
+	/**
+	 * Returns the entry lines written to a log, ignoring directives.
+	 * @param output The output of the log.
+	 * @return The lines of the output that are not directives.
+	 */
+	private static List<String> getEntryLines(final String output) {
+		final List<String> lines = new ArrayList<String>();
+		for(final String line : output.split("\n")) {
+			if(!line.isEmpty() && !line.startsWith("#")) {
+				lines.add(line);
+			}
+		}
+		return lines;
+	}
+
+	/**
+	 * Tests that entries of several logs sharing one small buffer are each written, in order, to the output of their own log.
+	 * @see ELFFMultiplexer#log(ELFF, Entry)
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testLogWritesEntriesOfEachLogInOrder() throws IOException {
+		final ELFF elff1 = new ELFF(Field.SERVER_CLIENT_STATUS_FIELD);
+		final ELFF elff2 = new ELFF(Field.CLIENT_SERVER_URI_STEM_FIELD, Field.SERVER_CLIENT_STATUS_FIELD);
+		final StringWriter writer1 = new StringWriter();
+		final StringWriter writer2 = new StringWriter();
+		final List<String> expectedLines1 = new ArrayList<String>();
+		final List<String> expectedLines2 = new ArrayList<String>();
+		try (final ELFFMultiplexer multiplexer = new ELFFMultiplexer(64, 3)) { //a buffer much smaller than all the entries, which must be shared
+			multiplexer.register(elff1, writer1);
+			multiplexer.register(elff2, writer2);
+			assertThat(writer1.toString(), containsString("#Fields: sc-status\n"));
+			assertThat(writer2.toString(), containsString("#Fields: cs-uri-stem sc-status\n"));
+			for(int i = 0; i < 100; ++i) {
+				multiplexer.log(elff1, createEntry(i));
+				expectedLines1.add(Integer.toString(i));
+				if(i % 3 == 0) {
+					final Entry entry = createEntry(i);
+					entry.setFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD, "/page " + i);
+					multiplexer.log(elff2, entry);
+					expectedLines2.add("/page+" + i + " " + i);
+				}
+			}
+		}
+		assertThat(getEntryLines(writer1.toString()), is(expectedLines1));
+		assertThat(getEntryLines(writer2.toString()), is(expectedLines2));
+	}
+
+	/**
+	 * Tests that an entry is refused after the multiplexer has been closed.
+	 * @see ELFFMultiplexer#log(ELFF, Entry)
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testLogAfterCloseThrowsIOException() throws IOException {
+		final ELFFMultiplexer multiplexer = new ELFFMultiplexer(1024);
+		multiplexer.register(STATUS_ELFF, new StringWriter());
+		multiplexer.close();
+		assertThrows(IOException.class, () -> multiplexer.log(STATUS_ELFF, createEntry(200)));
+		assertThrows(IOException.class, () -> multiplexer.register(new ELFF(), new StringWriter()));
+	}
+
+	/**
+	 * Races producers against closing the multiplexer. Every entry for which {@link ELFFMultiplexer#log(ELFF, Entry)} returned normally must be written, and no
+	 * producer may be left waiting for room.
+	 * @see ELFFMultiplexer#close()
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testLogRacingCloseLosesNoEntries() throws Exception {
+		final int producerCount = 4;
+		final ExecutorService executorService = Executors.newFixedThreadPool(producerCount);
+		try {
+			for(int trial = 0; trial < 200; ++trial) {
+				final ELFF elff = new ELFF(Field.SERVER_CLIENT_STATUS_FIELD);
+				final StringWriter writer = new StringWriter();
+				final ELFFMultiplexer multiplexer = new ELFFMultiplexer(32, 2); //a small buffer, so that producers wait for room
+				multiplexer.register(elff, writer);
+				final AtomicInteger loggedCount = new AtomicInteger();
+				final CountDownLatch startedLatch = new CountDownLatch(producerCount);
+				final List<Future<?>> futures = new ArrayList<Future<?>>();
+				for(int i = 0; i < producerCount; ++i) {
+					futures.add(executorService.submit(new Callable<Object>() {
+						@Override
+						public Object call() {
+							startedLatch.countDown();
+							try {
+								while(true) {
+									multiplexer.log(elff, createEntry(200));
+									loggedCount.incrementAndGet();
+								}
+							} catch(final IOException ioException) { //the multiplexer was closed
+								return null;
+							}
+						}
+					}));
+				}
+				startedLatch.await();
+				multiplexer.close();
+				for(final Future<?> future : futures) {
+					future.get(10, TimeUnit.SECONDS); //no producer may be left waiting
+				}
+				assertThat(getEntryLines(writer.toString()).size(), is(loggedCount.get()));
+			}
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	/**
+	 * Races registrations of the same log. Only one registration may succeed, and only its writer may receive the directives.
+	 * @see ELFFMultiplexer#register(ELFF, Writer, com.globalmentor.model.NameValuePair...)
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testConcurrentRegisterWritesDirectivesOnce() throws Exception {
+		final int registrantCount = 4;
+		final ExecutorService executorService = Executors.newFixedThreadPool(registrantCount);
+		try (final ELFFMultiplexer multiplexer = new ELFFMultiplexer(1024)) {
+			for(int trial = 0; trial < 200; ++trial) {
+				final ELFF elff = new ELFF(Field.SERVER_CLIENT_STATUS_FIELD);
+				final CyclicBarrier barrier = new CyclicBarrier(registrantCount);
+				final List<StringWriter> writers = new ArrayList<StringWriter>();
+				final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+				for(int i = 0; i < registrantCount; ++i) {
+					final StringWriter writer = new StringWriter();
+					writers.add(writer);
+					futures.add(executorService.submit(new Callable<Boolean>() {
+						@Override
+						public Boolean call() throws Exception {
+							barrier.await();
+							try {
+								multiplexer.register(elff, writer);
+								return true;
+							} catch(final IllegalStateException illegalStateException) { //already registered
+								return false;
+							}
+						}
+					}));
+				}
+				int registeredCount = 0;
+				for(int i = 0; i < registrantCount; ++i) {
+					if(futures.get(i).get(10, TimeUnit.SECONDS)) {
+						++registeredCount;
+						assertThat(writers.get(i).toString(), containsString("#Fields: "));
+					} else {
+						assertThat(writers.get(i).toString(), is(""));
+					}
+				}
+				assertThat(registeredCount, is(1));
+			}
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	/**
+	 * Tests that entries of a log whose output has failed are discarded, without blocking the entries of other logs.
+	 * @see ELFFMultiplexer#log(ELFF, Entry)
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testFailedOutputDoesNotBlockOtherLogs() throws Exception {
+		final ELFF failingELFF = new ELFF(Field.SERVER_CLIENT_STATUS_FIELD);
+		final StringWriter writer = new StringWriter();
+		final ELFFMultiplexer multiplexer = new ELFFMultiplexer(64, 4);
+		multiplexer.register(failingELFF, new FilterWriter(new StringWriter()) { //accept the directives but fail when writing entries
+			@Override
+			public Writer append(final CharSequence charSequence) throws IOException {
+				throw new IOException("test failure");
+			}
+		});
+		multiplexer.register(STATUS_ELFF, writer);
+		for(int i = 0; i < 50; ++i) {
+			try {
+				multiplexer.log(failingELFF, createEntry(500));
+			} catch(final IOException ioException) { //the failure has been reported
+			}
+			multiplexer.log(STATUS_ELFF, createEntry(i));
+		}
+		assertThrows(IOException.class, () -> multiplexer.close());
+		assertThat(getEntryLines(writer.toString()).size(), is(50));
+	}
+
+	/**
+	 * Tests that an unchecked exception thrown by the output of one log is recorded as that log's failure, and neither stops the drain thread nor leaves
+	 * producers or closing waiting forever.
+	 * @see ELFFMultiplexer#log(ELFF, Entry)
+	 * @see ELFFMultiplexer#close()
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testUncheckedOutputFailureDoesNotStopDrain() throws Exception {
+		final ELFF failingELFF = new ELFF(Field.SERVER_CLIENT_STATUS_FIELD);
+		final StringWriter writer = new StringWriter();
+		final ELFFMultiplexer multiplexer = new ELFFMultiplexer(64, 4); //a small buffer, so that producers wait for the drain thread
+		multiplexer.register(failingELFF, new FilterWriter(new StringWriter()) { //accept the directives but fail when writing entries
+			@Override
+			public Writer append(final CharSequence charSequence) {
+				throw new IllegalStateException("test failure");
+			}
+		});
+		multiplexer.register(STATUS_ELFF, writer);
+		final ExecutorService executorService = Executors.newSingleThreadExecutor();
+		try {
+			executorService.submit(new Callable<Object>() {
+				@Override
+				public Object call() throws IOException {
+					for(int i = 0; i < 50; ++i) {
+						try {
+							multiplexer.log(failingELFF, createEntry(500));
+						} catch(final IOException ioException) { //the failure has been reported
+							assertThat(ioException.getCause().getCause(), is(instanceOf(IllegalStateException.class)));
+						}
+						multiplexer.log(STATUS_ELFF, createEntry(i));
+					}
+					final IOException closeIOException = assertThrows(IOException.class, () -> multiplexer.close());
+					assertThat(closeIOException.getCause(), is(instanceOf(IllegalStateException.class)));
+					return null;
+				}
+			}).get(10, TimeUnit.SECONDS); //neither logging nor closing may wait forever
+		} finally {
+			executorService.shutdownNow();
+		}
+		assertThat(getEntryLines(writer.toString()).size(), is(50));
+	}
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.text.elff;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link ELFFParser}.
+ */
+public class ELFFParserTest {
+
+	/**
+	 * Tests that the decoded header value cache is given to the current log and to each log created afterwards, and that cookie values are not cached.
+	 * @see ELFFParser#setDecodedHeaderValueCache(ClockCache)
+	 */
+	@Test
+	public void testSetDecodedHeaderValueCacheAppliesToEachLog() throws Exception {
+		final ELFFParser parser = new ELFFParser();
+		parser.parseLine("#Fields: cs(User-Agent) cs(Cookie)");
+		final ClockCache<String, String> cache = new ClockCache<String, String>(16);
+		parser.setDecodedHeaderValueCache(cache);
+		assertThat(parser.getELFF().getDecodedHeaderValueCache(), is(sameInstance(cache)));
+		final Entry entry1 = parser.parseLine("Mozilla/5.0+(X11) a=1");
+		final Entry entry2 = parser.parseLine("Mozilla/5.0+(X11) a=1");
+		final String userAgent = entry1.getFieldValue(Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD);
+		assertThat(userAgent, is("Mozilla/5.0 (X11)"));
+		assertThat(entry2.getFieldValue(Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD), is(sameInstance(userAgent)));
+		final String cookie = entry1.getFieldValue(Field.CLIENT_SERVER_COOKIE_HEADER_FIELD);
+		assertThat(entry2.getFieldValue(Field.CLIENT_SERVER_COOKIE_HEADER_FIELD), is(not(sameInstance(cookie))));
+		assertThat(cache.getSize(), is(1));
+		parser.parseLine("#Fields: sc-status cs(User-Agent)");
+		assertThat(parser.getELFF().getDecodedHeaderValueCache(), is(sameInstance(cache)));
+		assertThat(parser.parseLine("200 Mozilla/5.0+(X11)").getFieldValue(Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD), is(sameInstance(userAgent)));
+	}
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.text.elff;
+
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Measures the throughput of {@link ELFF#formatEntry(StringBuilder, Entry)} on a single shared {@link ELFF} instance from one thread up to a maximum number
+ * of threads, reporting the scalability curve and the places where threads were blocked on monitors.
+ * <p>
+ * This is not a unit test, and is not run as part of the build. Run it from the test class path:
+ * </p>
+ * <pre>
+ * java -cp target/classes:target/test-classes com.globalmentor.text.elff.ELFFScalingHarness [<var>maxThreads</var> [<var>seconds</var> [<var>cached</var>]]]
+ * </pre>
+ * <p>
+ * The maximum number of threads defaults to twice the number of available processors, and each thread count is measured for two seconds after a one-second
+ * warm-up, following an initial single-threaded run that is discarded. If <var>cached</var> is <code>true</code>, the log uses an encoded header value
+ * cache. Blocked counts and times are taken from {@link ThreadMXBean}; hotspots are the frames at which blocked threads were found when sampling their
+ * stacks.
+ * </p>
+ * @see ELFFConcurrencyTest
+ */
+public class ELFFScalingHarness {
+
+	/** The number of entries each thread cycles through. */
+	private static final int ENTRY_COUNT = 1024;
+
+	/** The interval between samples of blocked thread stacks, in milliseconds. */
+	private static final long SAMPLE_INTERVAL_MILLIS = 5;
+
+	/** The maximum number of hotspots to report for each thread count. */
+	private static final int HOTSPOT_COUNT = 5;
+
+	/**
+	 * The result of measuring a single thread count.
+	 */
+	private static class Measurement {
+
+		/** The number of entries formatted per second. */
+		double entriesPerSecond;
+
+		/** The total number of times the threads blocked on a monitor. */
+		long blockedCount;
+
+		/** The total time the threads were blocked on monitors, in milliseconds, or -1 if contention monitoring is not supported. */
+		long blockedMillis;
+
+		/** The number of times a blocked thread was sampled at each frame. */
+		final Map<String, Integer> hotspotCounts = new HashMap<String, Integer>();
+
+	}
+
+	/**
+	 * Runs the harness.
+	 * @param args The optional maximum number of threads, number of seconds to measure each thread count, and whether header values are cached.
+	 * @throws Exception if an error occurred while measuring.
+	 */
+	public static void main(final String[] args) throws Exception {
+		final int maxThreadCount = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() * 2;
+		final long measureMillis = args.length > 1 ? (long)(Double.parseDouble(args[1]) * 1000) : 2000;
+		final boolean isCached = args.length > 2 && Boolean.parseBoolean(args[2]);
+		final ELFF elff = new ELFF(Field.DATE_FIELD, Field.TIME_FIELD, Field.TIME_TAKEN_FIELD, Field.SERVER_CLIENT_STATUS_FIELD, Field.CLIENT_IP_FIELD,
+				Field.CLIENT_SERVER_URI_STEM_FIELD, Field.CLIENT_SERVER_URI_QUERY_FIELD, Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD);
+		if(isCached) {
+			elff.setEncodedHeaderValueCache(new ClockCache<String, char[]>(256));
+		}
+		final Entry[] entries = createEntries();
+		final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		if(threadMXBean.isThreadContentionMonitoringSupported()) {
+			threadMXBean.setThreadContentionMonitoringEnabled(true);
+		}
+		System.out.println("ELFF formatEntry() scaling: " + Runtime.getRuntime().availableProcessors() + " processors, " + measureMillis + " ms per thread count"
+				+ (isCached ? ", cached header values" : ""));
+		System.out.printf("%7s %15s %8s %10s %12s %12s%n", "threads", "entries/s", "speedup", "efficiency", "blocked", "blocked ms");
+		measure(elff, entries, 1, measureMillis, threadMXBean); //give the compiler a chance to optimize before the baseline is measured
+		double baseEntriesPerSecond = 0;
+		final List<Measurement> measurements = new ArrayList<Measurement>();
+		for(int threadCount = 1; threadCount <= maxThreadCount; ++threadCount) {
+			final Measurement measurement = measure(elff, entries, threadCount, measureMillis, threadMXBean);
+			measurements.add(measurement);
+			if(threadCount == 1) {
+				baseEntriesPerSecond = measurement.entriesPerSecond;
+			}
+			final double speedup = measurement.entriesPerSecond / baseEntriesPerSecond;
+			System.out.printf("%7d %15.0f %8.2f %9.0f%% %12d %12s%n", threadCount, measurement.entriesPerSecond, speedup, speedup / threadCount * 100,
+					measurement.blockedCount, measurement.blockedMillis >= 0 ? Long.toString(measurement.blockedMillis) : "n/a");
+		}
+		System.out.println();
+		System.out.println("Contention hotspots (samples of blocked threads by frame):");
+		for(int i = 0; i < measurements.size(); ++i) {
+			final Map<String, Integer> hotspotCounts = measurements.get(i).hotspotCounts;
+			if(hotspotCounts.isEmpty()) {
+				continue;
+			}
+			System.out.println("  " + (i + 1) + " threads:");
+			final List<Map.Entry<String, Integer>> hotspots = new ArrayList<Map.Entry<String, Integer>>(hotspotCounts.entrySet());
+			Collections.sort(hotspots, new Comparator<Map.Entry<String, Integer>>() {
+				@Override
+				public int compare(final Map.Entry<String, Integer> hotspot1, final Map.Entry<String, Integer> hotspot2) {
+					return hotspot2.getValue().compareTo(hotspot1.getValue());
+				}
+			});
+			for(final Map.Entry<String, Integer> hotspot : hotspots.subList(0, Math.min(HOTSPOT_COUNT, hotspots.size()))) {
+				System.out.printf("    %6d  %s%n", hotspot.getValue(), hotspot.getKey());
+			}
+		}
+	}
+
+	/**
+	 * Creates entries with varied values.
+	 * @return The entries to format.
+	 */
+	private static Entry[] createEntries() {
+		final Random random = new Random(33);
+		final Entry[] entries = new Entry[ENTRY_COUNT];
+		for(int i = 0; i < ENTRY_COUNT; ++i) {
+			final Date date = new Date(1760572800000L + random.nextInt(365 * 24 * 60 * 60) * 1000L + random.nextInt(1000));
+			final Entry entry = new Entry();
+			entry.setFieldValue(Field.DATE_FIELD, date);
+			entry.setFieldValue(Field.TIME_FIELD, date);
+			entry.setFieldValue(Field.TIME_TAKEN_FIELD, random.nextInt(5000) / 1000.0);
+			entry.setFieldValue(Field.SERVER_CLIENT_STATUS_FIELD, random.nextBoolean() ? 200 : 404);
+			entry.setFieldValue(Field.CLIENT_IP_FIELD, "192.168." + random.nextInt(256) + "." + random.nextInt(256));
+			entry.setFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD, "/path/to/resource" + random.nextInt(100));
+			entry.setFieldValue(Field.CLIENT_SERVER_URI_QUERY_FIELD, random.nextBoolean() ? null : "q=" + random.nextInt(1000));
+			entry.setFieldValue(Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD, "Mozilla/5.0 (Agent " + random.nextInt(20) + ")");
+			entries[i] = entry;
+		}
+		return entries;
+	}
+
+	/**
+	 * Measures formatting throughput at the given number of threads.
+	 * @param elff The shared log.
+	 * @param entries The entries to format.
+	 * @param threadCount The number of threads formatting concurrently.
+	 * @param measureMillis The time to measure, in milliseconds, after warming up.
+	 * @param threadMXBean The bean for monitoring thread contention.
+	 * @return The measurement.
+	 * @throws InterruptedException if the measuring thread was interrupted.
+	 */
+	private static Measurement measure(final ELFF elff, final Entry[] entries, final int threadCount, final long measureMillis,
+			final ThreadMXBean threadMXBean) throws InterruptedException {
+		final AtomicBoolean isMeasuring = new AtomicBoolean(false);
+		final AtomicBoolean isStopped = new AtomicBoolean(false);
+		final LongAdder formatCount = new LongAdder();
+		final Thread[] threads = new Thread[threadCount];
+		for(int i = 0; i < threadCount; ++i) {
+			final int offset = i * ENTRY_COUNT / threadCount;
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					final StringBuilder stringBuilder = new StringBuilder();
+					int index = offset;
+					long count = 0;
+					boolean wasMeasuring = false;
+					while(!isStopped.get()) {
+						stringBuilder.setLength(0);
+						elff.formatEntry(stringBuilder, entries[index]);
+						index = (index + 1) % ENTRY_COUNT;
+						if(wasMeasuring) {
+							++count;
+						} else if((index & 63) == 0) {
+							wasMeasuring = isMeasuring.get(); //only check occasionally whether warm-up has finished
+						}
+					}
+					formatCount.add(count);
+				}
+			}, "ELFF-format-" + i);
+			threads[i].setDaemon(true);
+		}
+		for(final Thread thread : threads) {
+			thread.start();
+		}
+		Thread.sleep(1000); //warm up
+		final long[] startBlockedCounts = new long[threadCount];
+		final long[] startBlockedTimes = new long[threadCount];
+		for(int i = 0; i < threadCount; ++i) {
+			final ThreadInfo threadInfo = threadMXBean.getThreadInfo(threads[i].getId());
+			startBlockedCounts[i] = threadInfo.getBlockedCount();
+			startBlockedTimes[i] = threadInfo.getBlockedTime();
+		}
+		final Measurement measurement = new Measurement();
+		final long[] threadIds = new long[threadCount];
+		for(int i = 0; i < threadCount; ++i) {
+			threadIds[i] = threads[i].getId();
+		}
+		isMeasuring.set(true);
+		final long startNanos = System.nanoTime();
+		final long endNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(measureMillis);
+		while(System.nanoTime() < endNanos) { //sample the blocked threads
+			for(final ThreadInfo threadInfo : threadMXBean.getThreadInfo(threadIds, 8)) {
+				if(threadInfo != null && threadInfo.getThreadState() == Thread.State.BLOCKED) {
+					final StackTraceElement[] stackTrace = threadInfo.getStackTrace();
+					final String hotspot = stackTrace.length > 0 ? stackTrace[0] + " on " + threadInfo.getLockName() : String.valueOf(threadInfo.getLockName());
+					final Integer hotspotCount = measurement.hotspotCounts.get(hotspot);
+					measurement.hotspotCounts.put(hotspot, hotspotCount != null ? hotspotCount + 1 : 1);
+				}
+			}
+			Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+		}
+		long blockedCount = 0;
+		long blockedMillis = threadMXBean.isThreadContentionMonitoringEnabled() ? 0 : -1; //blocked times are only available with contention monitoring
+		for(int i = 0; i < threadCount; ++i) {
+			final ThreadInfo threadInfo = threadMXBean.getThreadInfo(threadIds[i]);
+			blockedCount += threadInfo.getBlockedCount() - startBlockedCounts[i];
+			if(blockedMillis >= 0) {
+				blockedMillis += threadInfo.getBlockedTime() - startBlockedTimes[i];
+			}
+		}
+		isStopped.set(true);
+		final long elapsedNanos = System.nanoTime() - startNanos;
+		for(final Thread thread : threads) {
+			thread.join();
+		}
+		measurement.entriesPerSecond = formatCount.sum() * 1e9 / elapsedNanos;
+		measurement.blockedCount = blockedCount;
+		measurement.blockedMillis = blockedMillis;
+		return measurement;
+	}
+
+}
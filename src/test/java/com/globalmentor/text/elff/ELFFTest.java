@@ -0,0 +1,364 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.text.elff;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.text.*;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link ELFF}.
+ */
+public class ELFFTest {
+
+	/** A URI field for testing. */
+	private static final Field<URI> REFERRER_URI_FIELD = new Field<URI>(FieldIdentifierPrefix.APPLICATION_SPECIFIC, "referrer", FieldType.URI);
+
+	/** A log using every field type. */
+	private static final ELFF ELFF_ALL_TYPES = new ELFF(Field.DATE_FIELD, Field.TIME_FIELD, Field.TIME_TAKEN_FIELD, Field.SERVER_CLIENT_STATUS_FIELD,
+			Field.CLIENT_IP_FIELD, Field.CLIENT_SERVER_URI_STEM_FIELD, Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD, REFERRER_URI_FIELD);
+
+	/** @see ELFF#parseEntry(CharSequence) */
+	@Test
+	public void testParseEntryRoundTripsSerializedEntry() throws Exception {
+		final Date date = new Date(1760623402117L); //2025-10-16 14:03:22:117 GMT
+		final Entry entry = new Entry();
+		entry.setFieldValue(Field.DATE_FIELD, date);
+		entry.setFieldValue(Field.TIME_FIELD, date);
+		entry.setFieldValue(Field.TIME_TAKEN_FIELD, 0.0123);
+		entry.setFieldValue(Field.SERVER_CLIENT_STATUS_FIELD, 503);
+		entry.setFieldValue(Field.CLIENT_IP_FIELD, "192.168.0.1");
+		entry.setFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD, "/path/to a+b");
+		entry.setFieldValue(Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD, "Mozilla/5.0 (X11; Linux x86_64)");
+		entry.setFieldValue(REFERRER_URI_FIELD, URI.create("https://example.com/?q=1"));
+		final String line = ELFF_ALL_TYPES.serializeEntry(entry);
+		assertThat(line, is("2025-10-16 14:03:22:117 0.0123 503 192.168.0.1 /path/to+a++b Mozilla/5.0+(X11;+Linux+x86_64) https://example.com/?q=1\n"));
+		final Entry parsedEntry = ELFF_ALL_TYPES.parseEntry(line);
+		assertThat(parsedEntry.getFieldValue(Field.DATE_FIELD), is(new Date(1760572800000L)));
+		assertThat(parsedEntry.getFieldValue(Field.TIME_FIELD), is(new Date(50602117L)));
+		assertThat(parsedEntry.getFieldValue(Field.TIME_TAKEN_FIELD), is(0.0123));
+		assertThat(parsedEntry.getFieldValue(Field.SERVER_CLIENT_STATUS_FIELD), is(503));
+		assertThat(parsedEntry.getFieldValue(Field.CLIENT_IP_FIELD), is("192.168.0.1"));
+		assertThat(parsedEntry.getFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD), is("/path/to a+b"));
+		assertThat(parsedEntry.getFieldValue(Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD), is("Mozilla/5.0 (X11; Linux x86_64)"));
+		assertThat(parsedEntry.getFieldValue(REFERRER_URI_FIELD), is(URI.create("https://example.com/?q=1")));
+		assertThat(ELFF_ALL_TYPES.serializeEntry(parsedEntry), is(line));
+	}
+
+	/** @see ELFF#parseEntry(CharSequence) */
+	@Test
+	public void testParseEntryRoundTripsNullValues() throws Exception {
+		final String line = ELFF_ALL_TYPES.serializeEntry(new Entry());
+		assertThat(line, is("- - - - - - - -\n"));
+		final Entry parsedEntry = ELFF_ALL_TYPES.parseEntry(line);
+		assertThat(parsedEntry.getFieldValue(Field.DATE_FIELD), is(nullValue()));
+		assertThat(parsedEntry.getFieldValue(Field.SERVER_CLIENT_STATUS_FIELD), is(nullValue()));
+		assertThat(parsedEntry.getFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD), is(nullValue()));
+		assertThat(parsedEntry.getFieldValue(REFERRER_URI_FIELD), is(nullValue()));
+		assertThat(ELFF_ALL_TYPES.serializeEntry(parsedEntry), is(line));
+	}
+
+	/**
+	 * Tests that a line with empty values can be parsed with the right number of field values; empty values are written as if they were <code>null</code>.
+	 * @see ELFF#formatFieldValue(StringBuilder, Field, Object)
+	 * @see ELFF#parseEntry(CharSequence)
+	 */
+	@Test
+	public void testParseEntryRoundTripsEmptyValues() throws Exception {
+		final Entry entry = new Entry();
+		entry.setFieldValue(Field.SERVER_CLIENT_STATUS_FIELD, 200);
+		entry.setFieldValue(Field.CLIENT_IP_FIELD, "");
+		entry.setFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD, "");
+		entry.setFieldValue(Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD, "");
+		entry.setFieldValue(REFERRER_URI_FIELD, URI.create(""));
+		final String line = ELFF_ALL_TYPES.serializeEntry(entry);
+		assertThat(line, is("- - - 200 - - - -\n"));
+		final Entry parsedEntry = ELFF_ALL_TYPES.parseEntry(line);
+		assertThat(parsedEntry.getFieldValue(Field.SERVER_CLIENT_STATUS_FIELD), is(200));
+		assertThat(parsedEntry.getFieldValue(Field.CLIENT_IP_FIELD), is(nullValue()));
+		assertThat(parsedEntry.getFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD), is(nullValue()));
+		assertThat(parsedEntry.getFieldValue(Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD), is(nullValue()));
+		assertThat(parsedEntry.getFieldValue(REFERRER_URI_FIELD), is(nullValue()));
+		ELFF_ALL_TYPES.setEncodedHeaderValueCache(new ClockCache<String, char[]>(16)); //cached header values are written the same way
+		try {
+			assertThat(ELFF_ALL_TYPES.serializeEntry(entry), is(line));
+		} finally {
+			ELFF_ALL_TYPES.setEncodedHeaderValueCache(null);
+		}
+	}
+
+	/** @see ELFF#parseEntry(CharSequence) */
+	@Test
+	public void testParseEntryIgnoresLineEndingAndRepeatedSeparators() throws Exception {
+		final ELFF elff = new ELFF(Field.SERVER_CLIENT_STATUS_FIELD, Field.CLIENT_IP_FIELD);
+		final Entry entry = elff.parseEntry("  200 \t 10.0.0.1\r\n");
+		assertThat(entry.getFieldValue(Field.SERVER_CLIENT_STATUS_FIELD), is(200));
+		assertThat(entry.getFieldValue(Field.CLIENT_IP_FIELD), is("10.0.0.1"));
+	}
+
+	/** @see ELFF#parseEntry(CharSequence) */
+	@Test
+	public void testParseEntryRejectsWrongFieldCount() {
+		final ELFF elff = new ELFF(Field.SERVER_CLIENT_STATUS_FIELD, Field.CLIENT_IP_FIELD);
+		assertThrows(ParseException.class, () -> elff.parseEntry("200\n"));
+		assertThrows(ParseException.class, () -> elff.parseEntry("200 10.0.0.1 extra\n"));
+	}
+
+	/** @see ELFF#decodeString(CharSequence, int, int) */
+	@Test
+	public void testDecodeStringReversesEncodeString() {
+		for(final String string : new String[] {"", "abc", "a b", "a+b", "a++b", "+", "++ x", "a +b"}) {
+			final String encoded = ELFF.encodeString(string);
+			//a space followed by a plus is ambiguous, and decodes as a plus followed by a space
+			final String expected = string.replace(" +", "+ ");
+			assertThat(string, ELFF.decodeString(encoded, 0, encoded.length()), is(expected));
+		}
+	}
+
+	/** The number of random values to check for each property. */
+	private static final int PROPERTY_SAMPLE_COUNT = 10000;
+
+	/** The number of milliseconds in a day. */
+	private static final long MILLISECONDS_PER_DAY = 24L * 60 * 60 * 1000;
+
+	/**
+	 * Formats a field value and parses it back.
+	 * @param <T> The type of value.
+	 * @param field The field with which the value is associated.
+	 * @param value The value to format.
+	 * @return The value parsed from the formatted value.
+	 */
+	private static <T> T roundTrip(final Field<T> field, final T value) {
+		final String formatted = ELFF.formatFieldValue(new StringBuilder(), field, value).toString();
+		return ELFF.parseFieldValue(field, formatted, 0, formatted.length());
+	}
+
+	/** @see ELFF#parseFixed(CharSequence, int, int) */
+	@Test
+	public void testParseFixedRoundTripsFormattedValues() {
+		for(final double value : new double[] {0.0, -0.0, 1.0, -1.0, 0.1, 0.0123, 123456789.125, 1e7, 1e-3, 1e-300, 1e300, Double.MIN_VALUE, Double.MAX_VALUE,
+				Double.MIN_NORMAL}) {
+			assertThat(Double.toString(value), Double.doubleToRawLongBits(roundTrip(Field.TIME_TAKEN_FIELD, value)), is(Double.doubleToRawLongBits(value)));
+		}
+		assertThat(ELFF.formatFieldValue(new StringBuilder(), Field.TIME_TAKEN_FIELD, 1e10).toString(), is("10000000000"));
+		assertThat(ELFF.formatFieldValue(new StringBuilder(), Field.TIME_TAKEN_FIELD, 1.5e-5).toString(), is("0.000015"));
+		for(final double value : new double[] {Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}) { //special values cannot be represented
+			assertThat(ELFF.formatFieldValue(new StringBuilder(), Field.TIME_TAKEN_FIELD, value).toString(), is(ELFF.NULL_FIELD_VALUE));
+		}
+		final Random random = new Random(26);
+		for(int i = 0; i < PROPERTY_SAMPLE_COUNT; ++i) {
+			final double value;
+			switch(i % 3) {
+				case 0: //arbitrary bit patterns, covering all exponents
+					value = Double.longBitsToDouble(random.nextLong());
+					break;
+				case 1: //typical durations in seconds
+					value = random.nextInt(100000) / 1000.0;
+					break;
+				default:
+					value = random.nextDouble() * Math.pow(10, random.nextInt(20) - 10);
+					break;
+			}
+			if(!Double.isNaN(value) && !Double.isInfinite(value)) { //special values are written as null
+				assertThat(Double.toString(value), roundTrip(Field.TIME_TAKEN_FIELD, value), is(value));
+			}
+		}
+	}
+
+	/** @see ELFF#parseInteger(CharSequence, int, int) */
+	@Test
+	public void testParseIntegerRoundTripsFormattedValues() {
+		for(final int value : new int[] {0, 1, -1, 9, 10, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE - 1, Integer.MIN_VALUE + 1}) {
+			assertThat(roundTrip(Field.SERVER_CLIENT_STATUS_FIELD, value), is(value));
+		}
+		final Random random = new Random(27);
+		for(int i = 0; i < PROPERTY_SAMPLE_COUNT; ++i) {
+			final int value = random.nextInt() >> random.nextInt(32); //vary the magnitude
+			assertThat(roundTrip(Field.SERVER_CLIENT_STATUS_FIELD, value), is(value));
+		}
+	}
+
+	/**
+	 * Tests that parsing a formatted date gives the start of the formatted day, for times in years 1 through 9999, including those before the Gregorian
+	 * calendar.
+	 * @see ELFF#parseDate(CharSequence, int, int)
+	 */
+	@Test
+	public void testParseDateRoundTripsFormattedValues() {
+		final Calendar calendar = new GregorianCalendar(TimeZone.getTimeZone("GMT"));
+		calendar.clear();
+		calendar.set(1, Calendar.JANUARY, 1);
+		final long minTime = calendar.getTimeInMillis();
+		calendar.clear();
+		calendar.set(10000, Calendar.JANUARY, 1);
+		final long maxTime = calendar.getTimeInMillis();
+		final List<Long> times = new ArrayList<Long>(Arrays.asList(minTime, maxTime - 1, 0L, -1L, 1L, -15000000000000L, //1494, in the Julian calendar
+				-12219292800000L, -12219292800001L, //the Gregorian cutover, 1582-10-15 and the last millisecond of 1582-10-04
+				-12212553600000L, -12212553600001L, //the start of 1583 and the end of 1582
+				951782400000L, 951868800000L, 253402300799999L)); //leap days, and the end of 9999
+		final Random random = new Random(28);
+		for(int i = 0; i < PROPERTY_SAMPLE_COUNT; ++i) {
+			times.add(minTime + (long)(random.nextDouble() * (maxTime - minTime)));
+		}
+		for(final long time : times) {
+			final String formatted = ELFF.formatFieldValue(new StringBuilder(), Field.DATE_FIELD, new Date(time)).toString();
+			final long parsedTime = roundTrip(Field.DATE_FIELD, new Date(time)).getTime();
+			assertThat(formatted, parsedTime, lessThanOrEqualTo(time));
+			assertThat(formatted, time, lessThan(parsedTime + MILLISECONDS_PER_DAY));
+			assertThat(ELFF.formatFieldValue(new StringBuilder(), Field.DATE_FIELD, new Date(parsedTime)).toString(), is(formatted));
+		}
+	}
+
+	/** @see ELFF#parseDate(CharSequence, int, int) */
+	@Test
+	public void testParseDateRejectsInvalidValues() {
+		for(final String value : new String[] {"", "2025-10-1", "2025-10-160", "2025/10/16", "2025-13-01", "2025-00-01", "2025-10-00", "2025-10-32", "0000-01-01",
+				"20x5-10-16", "2025-02-29", "2025-02-31", "2024-02-30", "2025-04-31", "2025-06-31", "2025-09-31", "2025-11-31", "1900-02-29", "2100-02-29",
+				"1582-10-05", "1582-10-14"}) {
+			assertThrows(IllegalArgumentException.class, () -> ELFF.parseDate(value, 0, value.length()), value);
+		}
+	}
+
+	/**
+	 * Tests that the last day of each month is accepted, including February 29 in leap years of both the Julian and Gregorian calendars, and that these days
+	 * are formatted again as they were parsed.
+	 * @see ELFF#parseDate(CharSequence, int, int)
+	 */
+	@Test
+	public void testParseDateAcceptsLastDaysOfMonths() {
+		for(final String value : new String[] {"2025-01-31", "2025-02-28", "2025-04-30", "2025-12-31", "2024-02-29", "2000-02-29", "1600-02-29", "1500-02-29",
+				"1100-02-29", "1582-10-04", "1582-10-15"}) {
+			final long time = ELFF.parseDate(value, 0, value.length());
+			assertThat(ELFF.formatFieldValue(new StringBuilder(), Field.DATE_FIELD, new Date(time)).toString(), is(value));
+		}
+	}
+
+	/** @see ELFF#parseTime(CharSequence, int, int) */
+	@Test
+	public void testParseTimeRoundTripsFormattedValues() {
+		final Random random = new Random(29);
+		for(int i = 0; i < PROPERTY_SAMPLE_COUNT; ++i) {
+			final long time = i == 0 ? 0 : i == 1 ? MILLISECONDS_PER_DAY - 1 : i == 2 ? -1 : random.nextLong() >> random.nextInt(20);
+			assertThat(roundTrip(Field.TIME_FIELD, new Date(time)).getTime(), is(Math.floorMod(time, MILLISECONDS_PER_DAY)));
+		}
+	}
+
+	/** @see ELFF#parseTime(CharSequence, int, int) */
+	@Test
+	public void testParseTimeRejectsInvalidValues() {
+		for(final String value : new String[] {"", "14:03:22", "14:03:22:1170", "14-03-22:117", "24:00:00:000", "14:60:00:000", "14:03:60:000", "1x:03:22:117"}) {
+			assertThrows(IllegalArgumentException.class, () -> ELFF.parseTime(value, 0, value.length()), value);
+		}
+	}
+
+	/**
+	 * Tests that random strings round-trip. A space followed by a space or a plus sign is avoided, as the encoding cannot distinguish these from a plus sign
+	 * followed by other characters.
+	 * @see ELFF#decodeString(CharSequence, int, int)
+	 */
+	@Test
+	public void testDecodeStringRoundTripsFormattedValues() {
+		final char[] characters = {'a', 'Z', '0', ' ', '+', '-', '/', '%', '\u00E9', '\u4E2D'};
+		final Random random = new Random(30);
+		for(int i = 0; i < PROPERTY_SAMPLE_COUNT; ++i) {
+			final StringBuilder stringBuilder = new StringBuilder();
+			final int length = random.nextInt(12);
+			for(int j = 0; j < length; ++j) {
+				final char c = characters[random.nextInt(characters.length)];
+				if((c == ' ' || c == '+') && stringBuilder.length() > 0 && stringBuilder.charAt(stringBuilder.length() - 1) == ' ') { //avoid ambiguous encodings
+					continue;
+				}
+				stringBuilder.append(c);
+			}
+			final String value = stringBuilder.toString();
+			if(value.isEmpty() || value.equals("-")) { //the null value, and the empty string, which is written as the null value
+				continue;
+			}
+			assertThat(roundTrip(Field.CLIENT_SERVER_URI_STEM_FIELD, value), is(value));
+		}
+	}
+
+	/** @see ELFF#parseFieldValue(Field, CharSequence, int, int) */
+	@Test
+	public void testParseFieldValueRoundTripsNull() {
+		for(final Field<?> field : ELFF_ALL_TYPES.getFields()) {
+			assertThat(field.toString(), roundTrip(field, null), is(nullValue()));
+		}
+	}
+
+	/** @see ELFF#parseFieldValue(Field, CharSequence, int, int) */
+	@Test
+	public void testParseFieldValueRejectsInvalidNumbers() {
+		for(final String value : new String[] {"", "x", "1.2.3", "--1", "1e", "1e5", "1E5", "1.5e-3", "0x1p3", "0x10", "1d", "1f", "1.0D", "NaN", "-NaN",
+				"Infinity", "-Infinity", ".5", "-.5", "1.", "-1.", "+1", " 1", "1 ", "1,5", "1234567890123456789012345.5e"}) {
+			assertThrows(IllegalArgumentException.class, () -> ELFF.parseFieldValue(Field.TIME_TAKEN_FIELD, value, 0, value.length()), value);
+		}
+		for(final String value : new String[] {"", "x", "1.0", "2147483648", "-2147483649", "+-1"}) {
+			assertThrows(IllegalArgumentException.class, () -> ELFF.parseFieldValue(Field.SERVER_CLIENT_STATUS_FIELD, value, 0, value.length()), value);
+		}
+	}
+
+	/**
+	 * Tests that dates and times are formatted exactly as a {@link SimpleDateFormat} formats them.
+	 * @see ELFF#formatDate(StringBuilder, long)
+	 * @see ELFF#formatTime(StringBuilder, long)
+	 */
+	@Test
+	public void testFormatDateAndTimeMatchSimpleDateFormat() {
+		final DateFormat dateFormat = new SimpleDateFormat(ELFF.DATE_FORMAT_PATTERN);
+		dateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+		final DateFormat timeFormat = new SimpleDateFormat(ELFF.TIME_FORMAT_PATTERN);
+		timeFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+		final List<Long> times = new ArrayList<Long>(Arrays.asList(0L, -1L, -12212553600000L, -12212553600001L, -12219292800000L, 951782400000L,
+				253402300799999L, 253402300800000L));
+		final Random random = new Random(33);
+		for(int i = 0; i < PROPERTY_SAMPLE_COUNT; ++i) {
+			times.add(-15000000000000L + (long)(random.nextDouble() * 270000000000000L)); //from the 15th century to beyond 9999
+		}
+		for(final long time : times) {
+			final Date date = new Date(time);
+			assertThat(ELFF.formatDate(new StringBuilder(), time).toString(), is(dateFormat.format(date)));
+			assertThat(ELFF.formatTime(new StringBuilder(), time).toString(), is(timeFormat.format(date)));
+		}
+	}
+
+	/**
+	 * Tests that header values are encoded through the cache, except for cookies.
+	 * @see ELFF#setEncodedHeaderValueCache(ClockCache)
+	 */
+	@Test
+	public void testFormatEntryCachesEncodedHeaderValuesExceptCookies() throws Exception {
+		final ELFF elff = new ELFF(Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD, Field.CLIENT_SERVER_COOKIE_HEADER_FIELD);
+		final ClockCache<String, char[]> cache = new ClockCache<String, char[]>(16);
+		elff.setEncodedHeaderValueCache(cache);
+		for(int i = 0; i < 3; ++i) {
+			final Entry entry = new Entry();
+			entry.setFieldValue(Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD, "Mozilla/5.0 (X11)");
+			entry.setFieldValue(Field.CLIENT_SERVER_COOKIE_HEADER_FIELD, "session=" + i);
+			assertThat(elff.serializeEntry(entry), is("Mozilla/5.0+(X11) session=" + i + "\n"));
+		}
+		assertThat(cache.getSize(), is(1));
+		assertThat(cache.getHitCount(), is(2L));
+	}
+
+}
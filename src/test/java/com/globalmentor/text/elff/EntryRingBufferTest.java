@@ -0,0 +1,235 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.text.elff;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link EntryRingBuffer}.
+ */
+public class EntryRingBufferTest {
+
+	/** A URI field for testing. */
+	private static final Field<URI> REFERRER_URI_FIELD = new Field<URI>(FieldIdentifierPrefix.APPLICATION_SPECIFIC, "referrer", FieldType.URI);
+
+	/** A log using every field type. */
+	private static final ELFF ELFF_ALL_TYPES = new ELFF(Field.DATE_FIELD, Field.TIME_FIELD, Field.TIME_TAKEN_FIELD, Field.SERVER_CLIENT_STATUS_FIELD,
+			Field.CLIENT_IP_FIELD, Field.CLIENT_SERVER_URI_STEM_FIELD, Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD, REFERRER_URI_FIELD);
+
+	/**
+	 * Creates an entry with varied values, including non-ASCII characters.
+	 * @param seed The value from which to derive the field values.
+	 * @return A new entry.
+	 */
+	private static Entry createEntry(final int seed) {
+		final Date date = new Date(1760623402117L + seed * 1000L);
+		final Entry entry = new Entry();
+		entry.setFieldValue(Field.DATE_FIELD, date);
+		entry.setFieldValue(Field.TIME_FIELD, date);
+		entry.setFieldValue(Field.TIME_TAKEN_FIELD, seed / 8.0);
+		entry.setFieldValue(Field.SERVER_CLIENT_STATUS_FIELD, seed % 3 == 0 ? null : 200 + seed);
+		entry.setFieldValue(Field.CLIENT_IP_FIELD, "10.0.0." + seed % 256);
+		entry.setFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD, "/café " + seed);
+		entry.setFieldValue(Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD, "Agent 中+" + seed);
+		entry.setFieldValue(REFERRER_URI_FIELD, seed % 2 == 0 ? URI.create("https://example.com/?q=" + seed) : null);
+		return entry;
+	}
+
+	/**
+	 * Tests that entries are formatted exactly as the log formats them, in order, as records wrap around the end of a small buffer at every possible offset.
+	 * @see EntryRingBuffer#offer(Entry)
+	 * @see EntryRingBuffer#poll(StringBuilder)
+	 */
+	@Test
+	public void testPollFormatsEntriesWrappingAroundBuffer() throws Exception {
+		final EntryRingBuffer entryBuffer = new EntryRingBuffer(ELFF_ALL_TYPES, 301); //a capacity that shifts the wrap point of each record
+		final StringBuilder stringBuilder = new StringBuilder();
+		for(int i = 0; i < 1000; ++i) {
+			final Entry entry = createEntry(i);
+			assertThat(entryBuffer.offer(entry), is(true));
+			stringBuilder.setLength(0);
+			assertThat(entryBuffer.poll(stringBuilder), is(true));
+			assertThat(stringBuilder.toString(), is(ELFF_ALL_TYPES.serializeEntry(entry)));
+		}
+		assertThat(entryBuffer.isEmpty(), is(true));
+		assertThat(entryBuffer.poll(stringBuilder), is(false));
+	}
+
+	/**
+	 * Tests that empty values are formatted just as the log formats them, so that the formatted entry can be parsed.
+	 * @see EntryRingBuffer#poll(StringBuilder)
+	 */
+	@Test
+	public void testPollFormatsEmptyValuesAsLogDoes() throws Exception {
+		final EntryRingBuffer entryBuffer = new EntryRingBuffer(ELFF_ALL_TYPES, 1024);
+		final Entry entry = createEntry(1);
+		entry.setFieldValue(Field.CLIENT_IP_FIELD, "");
+		entry.setFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD, "");
+		entry.setFieldValue(REFERRER_URI_FIELD, URI.create(""));
+		assertThat(entryBuffer.offer(entry), is(true));
+		final StringBuilder stringBuilder = new StringBuilder();
+		assertThat(entryBuffer.poll(stringBuilder), is(true));
+		assertThat(stringBuilder.toString(), is(ELFF_ALL_TYPES.serializeEntry(entry)));
+		assertThat(ELFF_ALL_TYPES.parseEntry(stringBuilder).getFieldValue(Field.CLIENT_IP_FIELD), is(nullValue()));
+	}
+
+	/**
+	 * Tests that entries are refused once the buffer is full, and accepted again once room has been made.
+	 * @see EntryRingBuffer#offer(Entry)
+	 */
+	@Test
+	public void testOfferRefusesEntryWhenFull() throws Exception {
+		final ELFF elff = new ELFF(Field.SERVER_CLIENT_STATUS_FIELD);
+		final EntryRingBuffer entryBuffer = new EntryRingBuffer(elff, 20); //room for two records of nine bytes each
+		assertThat(entryBuffer.offer(createEntry(1)), is(true));
+		assertThat(entryBuffer.offer(createEntry(2)), is(true));
+		assertThat(entryBuffer.offer(createEntry(4)), is(false));
+		final StringBuilder stringBuilder = new StringBuilder();
+		assertThat(entryBuffer.drainTo(stringBuilder, 1), is(1));
+		assertThat(entryBuffer.offer(createEntry(4)), is(true));
+		assertThat(entryBuffer.drainTo(stringBuilder, 10), is(2));
+		assertThat(stringBuilder.toString(), is("201\n202\n204\n"));
+	}
+
+	/**
+	 * Tests that an entry larger than the whole buffer is rejected.
+	 * @see EntryRingBuffer#offer(Entry)
+	 */
+	@Test
+	public void testOfferRejectsEntryLargerThanCapacity() {
+		final EntryRingBuffer entryBuffer = new EntryRingBuffer(ELFF_ALL_TYPES, 16);
+		assertThrows(IllegalArgumentException.class, () -> entryBuffer.offer(createEntry(1)));
+	}
+
+	/**
+	 * Tests that a buffer shared among logs identifies the log of each entry, so that entries of different logs can be formatted or skipped in order.
+	 * @see EntryRingBuffer#put(ELFF, int, Entry)
+	 * @see EntryRingBuffer#peekTag()
+	 */
+	@Test
+	public void testSharedBufferTagsEntriesOfEachLog() throws Exception {
+		final ELFF statusELFF = new ELFF(Field.SERVER_CLIENT_STATUS_FIELD);
+		final EntryRingBuffer entryBuffer = new EntryRingBuffer(256);
+		assertThat(entryBuffer.getELFF(), is(nullValue()));
+		assertThat(entryBuffer.peekTag(), is(-1));
+		final StringBuilder stringBuilder = new StringBuilder();
+		for(int i = 0; i < 100; ++i) { //wrap around the buffer several times
+			entryBuffer.put(ELFF_ALL_TYPES, 0, createEntry(i));
+			entryBuffer.put(statusELFF, 1, createEntry(i + 1));
+			entryBuffer.put(statusELFF, 2, createEntry(i + 2));
+			assertThat(entryBuffer.peekTag(), is(0));
+			stringBuilder.setLength(0);
+			entryBuffer.poll(ELFF_ALL_TYPES, stringBuilder);
+			assertThat(stringBuilder.toString(), is(ELFF_ALL_TYPES.serializeEntry(createEntry(i))));
+			assertThat(entryBuffer.peekTag(), is(1));
+			entryBuffer.skip();
+			assertThat(entryBuffer.peekTag(), is(2));
+			stringBuilder.setLength(0);
+			entryBuffer.poll(statusELFF, stringBuilder);
+			assertThat(stringBuilder.toString(), is(statusELFF.serializeEntry(createEntry(i + 2))));
+		}
+		assertThat(entryBuffer.peekTag(), is(-1));
+		assertThrows(IllegalStateException.class, () -> entryBuffer.offer(createEntry(0)));
+	}
+
+	/**
+	 * Tests that header values are formatted through the encoded header value cache of the log.
+	 * @see ELFF#setEncodedHeaderValueCache(ClockCache)
+	 */
+	@Test
+	public void testPollUsesEncodedHeaderValueCache() throws Exception {
+		final ELFF elff = new ELFF(Field.SERVER_CLIENT_STATUS_FIELD, Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD);
+		final ClockCache<String, char[]> cache = new ClockCache<String, char[]>(16);
+		elff.setEncodedHeaderValueCache(cache);
+		final EntryRingBuffer entryBuffer = new EntryRingBuffer(elff, 1024);
+		for(int i = 0; i < 5; ++i) {
+			final Entry entry = new Entry();
+			entry.setFieldValue(Field.SERVER_CLIENT_STATUS_FIELD, 200);
+			entry.setFieldValue(Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD, i == 4 ? null : "Agent +1");
+			assertThat(entryBuffer.offer(entry), is(true));
+		}
+		final StringBuilder stringBuilder = new StringBuilder();
+		assertThat(entryBuffer.drainTo(stringBuilder, 10), is(5));
+		assertThat(stringBuilder.toString(), is("200 Agent+++1\n200 Agent+++1\n200 Agent+++1\n200 Agent+++1\n200 -\n"));
+		assertThat(cache.getMissCount(), is(1L));
+		assertThat(cache.getHitCount(), is(3L));
+	}
+
+	/**
+	 * Races producers copying records into a small buffer concurrently with a consumer. Every entry must be formatted exactly once, intact, and the entries of
+	 * each producer must be formatted in the order that producer submitted them.
+	 * @see EntryRingBuffer#put(Entry)
+	 * @see EntryRingBuffer#take(StringBuilder)
+	 */
+	@Test
+	public void testConcurrentPutsAreEachFormattedOnceInOrder() throws Exception {
+		final int producerCount = 4;
+		final int entryCount = 5000;
+		final ELFF elff = new ELFF(Field.SERVER_CLIENT_STATUS_FIELD, Field.CLIENT_SERVER_URI_STEM_FIELD);
+		final EntryRingBuffer entryBuffer = new EntryRingBuffer(elff, 257); //a small buffer, so that records wrap and producers wait for room
+		final ExecutorService executorService = Executors.newFixedThreadPool(producerCount);
+		try {
+			final CyclicBarrier barrier = new CyclicBarrier(producerCount);
+			final List<Future<?>> futures = new ArrayList<Future<?>>();
+			for(int p = 0; p < producerCount; ++p) {
+				final int producer = p;
+				futures.add(executorService.submit(new Callable<Object>() {
+					@Override
+					public Object call() throws Exception {
+						barrier.await();
+						for(int i = 0; i < entryCount; ++i) {
+							final Entry entry = new Entry();
+							entry.setFieldValue(Field.SERVER_CLIENT_STATUS_FIELD, producer);
+							entry.setFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD, "/" + i + (i % 3 == 0 ? "/é中" : "")); //vary the record length
+							entryBuffer.put(entry);
+						}
+						return null;
+					}
+				}));
+			}
+			final int[] nextIndexes = new int[producerCount];
+			final StringBuilder stringBuilder = new StringBuilder();
+			for(int i = 0; i < producerCount * entryCount; ++i) {
+				stringBuilder.setLength(0);
+				entryBuffer.take(stringBuilder);
+				final Entry entry = elff.parseEntry(stringBuilder);
+				final int producer = entry.getFieldValue(Field.SERVER_CLIENT_STATUS_FIELD);
+				final int index = nextIndexes[producer]++;
+				assertThat(entry.getFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD), is("/" + index + (index % 3 == 0 ? "/é中" : "")));
+			}
+			for(final Future<?> future : futures) {
+				future.get(10, TimeUnit.SECONDS);
+			}
+			for(final int nextIndex : nextIndexes) {
+				assertThat(nextIndex, is(entryCount));
+			}
+			assertThat(entryBuffer.isEmpty(), is(true));
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+}
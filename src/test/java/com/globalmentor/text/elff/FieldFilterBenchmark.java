@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.text.elff;
+
+import java.text.ParseException;
+import java.util.*;
+
+/**
+ * Compares filtering raw entry lines with a compiled {@link FieldFilter} against parsing every line into an entry and then testing its values.
+ * <p>
+ * This is not a unit test, and is not run as part of the build. Run it from the test class path:
+ * </p>
+ * <pre>
+ * java -cp target/classes:target/test-classes com.globalmentor.text.elff.FieldFilterBenchmark [<var>lineCount</var> [<var>rounds</var>]]
+ * </pre>
+ * <p>
+ * A fixed, seeded set of lines is generated, so results are reproducible across runs. The line count defaults to 200,000 and the number of measured rounds
+ * to ten, after as many warm-up rounds; the median time of each approach is reported for each filter, along with its selectivity. The number of entries each
+ * approach accepts is checked to be the same.
+ * </p>
+ * @see FieldFilterTest#testCompiledFilterMatchesParsedEntries()
+ */
+public class FieldFilterBenchmark {
+
+	/** The log of the generated lines, similar to a typical web server access log. */
+	private static final ELFF BENCHMARK_ELFF = new ELFF(Field.DATE_FIELD, Field.TIME_FIELD, Field.CLIENT_IP_FIELD, Field.CLIENT_SERVER_METHOD_FIELD,
+			Field.CLIENT_SERVER_URI_STEM_FIELD, Field.CLIENT_SERVER_URI_QUERY_FIELD, Field.SERVER_CLIENT_STATUS_FIELD, Field.BYTES_FIELD, Field.TIME_TAKEN_FIELD,
+			Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD, Field.CLIENT_SERVER_REFERER_HEADER_FIELD);
+
+	/** A filter evaluated in the two ways being compared. */
+	private abstract static class Case {
+
+		/** The name of the case. */
+		final String name;
+
+		/** The filter of raw lines. */
+		final FieldFilter filter;
+
+		/**
+		 * Constructor.
+		 * @param name The name of the case.
+		 * @param filter The filter of raw lines.
+		 */
+		Case(final String name, final FieldFilter filter) {
+			this.name = name;
+			this.filter = filter;
+		}
+
+		/**
+		 * Tests the values of a parsed entry, equivalently to the filter.
+		 * @param entry The parsed entry.
+		 * @return <code>true</code> if the entry is accepted.
+		 */
+		abstract boolean test(Entry entry);
+	}
+
+	/**
+	 * Runs the benchmark.
+	 * @param args The optional number of lines and number of measured rounds.
+	 * @throws ParseException if a generated line could not be parsed.
+	 */
+	public static void main(final String[] args) throws ParseException {
+		final int lineCount = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		final int roundCount = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		final String[] lines = createLines(lineCount);
+		final Case[] cases = {new Case("status >= 500", FieldFilter.atLeast(Field.SERVER_CLIENT_STATUS_FIELD, 500)) {
+			@Override
+			boolean test(final Entry entry) {
+				final Integer status = entry.getFieldValue(Field.SERVER_CLIENT_STATUS_FIELD);
+				return status != null && status >= 500;
+			}
+		}, new Case("uri-stem starts with /api/", FieldFilter.startsWith(Field.CLIENT_SERVER_URI_STEM_FIELD, "/api/")) {
+			@Override
+			boolean test(final Entry entry) {
+				final String stem = entry.getFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD);
+				return stem != null && stem.startsWith("/api/");
+			}
+		}, new Case("status = 404 and time-taken >= 1", FieldFilter.and(FieldFilter.equalTo(Field.SERVER_CLIENT_STATUS_FIELD, 404),
+				FieldFilter.atLeast(Field.TIME_TAKEN_FIELD, 1))) {
+			@Override
+			boolean test(final Entry entry) {
+				final Integer status = entry.getFieldValue(Field.SERVER_CLIENT_STATUS_FIELD);
+				final Double timeTaken = entry.getFieldValue(Field.TIME_TAKEN_FIELD);
+				return status != null && status == 404 && timeTaken != null && timeTaken >= 1;
+			}
+		}, new Case("c-ip in 10.0.0.0/16", FieldFilter.addressInRange(Field.CLIENT_IP_FIELD, "10.0.0.0", "10.0.255.255")) {
+			@Override
+			boolean test(final Entry entry) {
+				final String ip = entry.getFieldValue(Field.CLIENT_IP_FIELD);
+				return ip != null && ip.startsWith("10.0.");
+			}
+		}};
+		System.out.println("FieldFilter benchmark: " + lineCount + " lines, " + roundCount + " rounds, median times");
+		System.out.printf("%-36s %9s %14s %14s %8s%n", "filter", "accepted", "filter ms", "parse ms", "speedup");
+		for(final Case benchmarkCase : cases) {
+			final LineFilter lineFilter = benchmarkCase.filter.compile(BENCHMARK_ELFF);
+			final long[] filterNanos = new long[roundCount];
+			final long[] parseNanos = new long[roundCount];
+			int filterCount = 0;
+			int parseCount = 0;
+			for(int round = -roundCount; round < roundCount; ++round) { //the negative rounds warm up
+				long start = System.nanoTime();
+				filterCount = 0;
+				for(final String line : lines) {
+					if(lineFilter.test(line)) {
+						BENCHMARK_ELFF.parseEntry(line); //the accepted entries are still parsed
+						++filterCount;
+					}
+				}
+				final long filterTime = System.nanoTime() - start;
+				start = System.nanoTime();
+				parseCount = 0;
+				for(final String line : lines) {
+					if(benchmarkCase.test(BENCHMARK_ELFF.parseEntry(line))) {
+						++parseCount;
+					}
+				}
+				final long parseTime = System.nanoTime() - start;
+				if(round >= 0) {
+					filterNanos[round] = filterTime;
+					parseNanos[round] = parseTime;
+				}
+			}
+			if(filterCount != parseCount) {
+				throw new IllegalStateException("Filter accepted " + filterCount + " entries but parsing accepted " + parseCount + " for " + benchmarkCase.name + ".");
+			}
+			final double filterMillis = median(filterNanos) / 1e6;
+			final double parseMillis = median(parseNanos) / 1e6;
+			System.out.printf("%-36s %8.2f%% %14.1f %14.1f %7.2fx%n", benchmarkCase.name, filterCount * 100.0 / lineCount, filterMillis, parseMillis,
+					parseMillis / filterMillis);
+		}
+	}
+
+	/**
+	 * Creates the lines to filter.
+	 * @param lineCount The number of lines to create.
+	 * @return Lines of {@link #BENCHMARK_ELFF}, without line endings.
+	 */
+	private static String[] createLines(final int lineCount) {
+		final Random random = new Random(32);
+		final String[] methods = {"GET", "GET", "GET", "POST", "PUT", "DELETE"};
+		final int[] statuses = {200, 200, 200, 200, 200, 200, 304, 301, 404, 404, 500, 503};
+		final String[] userAgents = {"Mozilla/5.0 (Windows NT 10.0; Win64; x64)", "Mozilla/5.0 (X11; Linux x86_64)", "curl/8.4.0", "Googlebot/2.1"};
+		final String[] lines = new String[lineCount];
+		final StringBuilder stringBuilder = new StringBuilder();
+		for(int i = 0; i < lineCount; ++i) {
+			final Date date = new Date(1760572800000L + i * 100L);
+			final Entry entry = new Entry();
+			entry.setFieldValue(Field.DATE_FIELD, date);
+			entry.setFieldValue(Field.TIME_FIELD, date);
+			entry.setFieldValue(Field.CLIENT_IP_FIELD, (random.nextInt(4) == 0 ? "10.0." : "192.168.") + random.nextInt(256) + "." + random.nextInt(256));
+			entry.setFieldValue(Field.CLIENT_SERVER_METHOD_FIELD, methods[random.nextInt(methods.length)]);
+			entry.setFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD, (random.nextInt(5) == 0 ? "/api/v1/items/" : "/static/page") + random.nextInt(1000));
+			entry.setFieldValue(Field.CLIENT_SERVER_URI_QUERY_FIELD, random.nextBoolean() ? null : "q=" + random.nextInt(10000) + "&sort=name");
+			entry.setFieldValue(Field.SERVER_CLIENT_STATUS_FIELD, statuses[random.nextInt(statuses.length)]);
+			entry.setFieldValue(Field.BYTES_FIELD, random.nextInt(100000));
+			entry.setFieldValue(Field.TIME_TAKEN_FIELD, random.nextInt(3000) / 1000.0);
+			entry.setFieldValue(Field.CLIENT_SERVER_USER_AGENT_HEADER_FIELD, userAgents[random.nextInt(userAgents.length)]);
+			entry.setFieldValue(Field.CLIENT_SERVER_REFERER_HEADER_FIELD, random.nextBoolean() ? null : "https://example.com/page" + random.nextInt(100));
+			stringBuilder.setLength(0);
+			BENCHMARK_ELFF.formatEntry(stringBuilder, entry);
+			stringBuilder.setLength(stringBuilder.length() - 1); //remove the newline
+			lines[i] = stringBuilder.toString();
+		}
+		return lines;
+	}
+
+	/**
+	 * Determines the median of a set of times.
+	 * @param times The times, which will be sorted.
+	 * @return The median time.
+	 */
+	private static double median(final long[] times) {
+		Arrays.sort(times);
+		final int middle = times.length / 2;
+		return times.length % 2 == 1 ? times[middle] : (times[middle - 1] + times[middle]) / 2.0;
+	}
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.text.elff;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.text.ParseException;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link FieldFilter}.
+ */
+public class FieldFilterTest {
+
+	/** The log used for testing. */
+	private static final ELFF TEST_ELFF = new ELFF(Field.SERVER_CLIENT_STATUS_FIELD, Field.TIME_TAKEN_FIELD, Field.CLIENT_IP_FIELD,
+			Field.CLIENT_SERVER_URI_STEM_FIELD);
+
+	/**
+	 * Tests whether a filter accepts a line of {@link #TEST_ELFF}.
+	 * @param filter The filter to test.
+	 * @param line The entry line.
+	 * @return <code>true</code> if the line is accepted.
+	 * @throws ParseException if the line could not be filtered.
+	 */
+	private static boolean accepts(final FieldFilter filter, final String line) throws ParseException {
+		return filter.compile(TEST_ELFF).test(line);
+	}
+
+	/** @see FieldFilter#equalTo(Field, Object) */
+	@Test
+	public void testEqualTo() throws ParseException {
+		assertThat(accepts(FieldFilter.equalTo(Field.SERVER_CLIENT_STATUS_FIELD, 404), "404 0.1 10.0.0.1 /a\n"), is(true));
+		assertThat(accepts(FieldFilter.equalTo(Field.SERVER_CLIENT_STATUS_FIELD, 404), "4040 0.1 10.0.0.1 /a\n"), is(false));
+		assertThat(accepts(FieldFilter.equalTo(Field.CLIENT_SERVER_URI_STEM_FIELD, "/a b"), "404 0.1 10.0.0.1 /a+b"), is(true));
+		assertThat(accepts(FieldFilter.equalTo(Field.CLIENT_SERVER_URI_STEM_FIELD, "/a b"), "404 0.1 10.0.0.1 /a+bc"), is(false));
+		assertThat(accepts(FieldFilter.equalTo(Field.CLIENT_SERVER_URI_STEM_FIELD, null), "404 0.1 10.0.0.1 -"), is(true));
+		assertThat(accepts(FieldFilter.equalTo(Field.DCS_ID_FIELD, null), "404 0.1 10.0.0.1 -"), is(true)); //a field missing from the log has no value
+		assertThat(accepts(FieldFilter.equalTo(Field.DCS_ID_FIELD, "x"), "404 0.1 10.0.0.1 -"), is(false));
+	}
+
+	/**
+	 * Tests that an ambiguous encoded string value is only accepted if it decodes to the value being matched.
+	 * @see FieldFilter#equalTo(Field, Object)
+	 */
+	@Test
+	public void testEqualToConfirmsAmbiguousStringValue() throws ParseException {
+		//"a +b" encodes as "a+++b", which decodes as "a+ b"
+		assertThat(accepts(FieldFilter.equalTo(Field.CLIENT_SERVER_URI_STEM_FIELD, "a +b"), "200 0.1 10.0.0.1 a+++b"), is(false));
+		assertThat(accepts(FieldFilter.equalTo(Field.CLIENT_SERVER_URI_STEM_FIELD, "a+ b"), "200 0.1 10.0.0.1 a+++b"), is(true));
+		assertThat(accepts(FieldFilter.equalTo(Field.CLIENT_SERVER_URI_STEM_FIELD, "a+b"), "200 0.1 10.0.0.1 a++b"), is(true));
+	}
+
+	/** @see FieldFilter#startsWith(Field, String) */
+	@Test
+	public void testStartsWith() throws ParseException {
+		assertThat(accepts(FieldFilter.startsWith(Field.CLIENT_SERVER_URI_STEM_FIELD, "/api "), "200 0.1 10.0.0.1 /api+v1"), is(true));
+		assertThat(accepts(FieldFilter.startsWith(Field.CLIENT_SERVER_URI_STEM_FIELD, "/api "), "200 0.1 10.0.0.1 /api++v1"), is(false));
+		assertThat(accepts(FieldFilter.startsWith(Field.CLIENT_SERVER_URI_STEM_FIELD, "-"), "200 0.1 10.0.0.1 -"), is(false));
+		assertThrows(IllegalArgumentException.class, () -> FieldFilter.startsWith(Field.SERVER_CLIENT_STATUS_FIELD, "2"));
+	}
+
+	/** @see FieldFilter#atLeast(Field, double) */
+	@Test
+	public void testAtLeastAndAtMost() throws ParseException {
+		assertThat(accepts(FieldFilter.atLeast(Field.SERVER_CLIENT_STATUS_FIELD, 400), "404 0.1 10.0.0.1 /"), is(true));
+		assertThat(accepts(FieldFilter.atLeast(Field.SERVER_CLIENT_STATUS_FIELD, 400), "200 0.1 10.0.0.1 /"), is(false));
+		assertThat(accepts(FieldFilter.atLeast(Field.SERVER_CLIENT_STATUS_FIELD, 400), "- 0.1 10.0.0.1 /"), is(false));
+		assertThat(accepts(FieldFilter.atMost(Field.TIME_TAKEN_FIELD, 0.5), "200 0.5 10.0.0.1 /"), is(true));
+		assertThat(accepts(FieldFilter.atMost(Field.TIME_TAKEN_FIELD, 0.5), "200 0.00015 10.0.0.1 /"), is(true));
+		assertThat(accepts(FieldFilter.atMost(Field.TIME_TAKEN_FIELD, 0.5), "200 0.51 10.0.0.1 /"), is(false));
+	}
+
+	/**
+	 * Tests that an invalid numeric value is reported rather than accepted.
+	 * @see FieldFilter#atLeast(Field, double)
+	 */
+	@Test
+	public void testAtLeastRejectsInvalidNumber() {
+		assertThrows(ParseException.class, () -> accepts(FieldFilter.atLeast(Field.SERVER_CLIENT_STATUS_FIELD, 400), "40x 0.1 10.0.0.1 /"));
+		assertThrows(ParseException.class, () -> accepts(FieldFilter.atMost(Field.TIME_TAKEN_FIELD, 1), "200 fast 10.0.0.1 /"));
+		assertThrows(ParseException.class, () -> accepts(FieldFilter.atMost(Field.TIME_TAKEN_FIELD, 1), "200 1.5E-1 10.0.0.1 /"));
+		assertThrows(ParseException.class, () -> accepts(FieldFilter.atMost(Field.TIME_TAKEN_FIELD, 1), "200 NaN 10.0.0.1 /"));
+	}
+
+	/**
+	 * Tests that a line without the field values needed by a filter is reported rather than accepted.
+	 * @see LineFilter#test(CharSequence)
+	 */
+	@Test
+	public void testCompiledFilterRejectsShortLine() {
+		assertThrows(ParseException.class, () -> accepts(FieldFilter.startsWith(Field.CLIENT_SERVER_URI_STEM_FIELD, "/"), "200 0.1 10.0.0.1\n"));
+		assertThrows(ParseException.class, () -> accepts(FieldFilter.equalTo(Field.SERVER_CLIENT_STATUS_FIELD, 200), "  \n"));
+	}
+
+	/** @see FieldFilter#addressInRange(Field, String, String) */
+	@Test
+	public void testAddressInRange() throws ParseException {
+		final FieldFilter filter = FieldFilter.addressInRange(Field.CLIENT_IP_FIELD, "10.0.0.0", "10.0.255.255");
+		assertThat(accepts(filter, "200 0.1 10.0.3.4 /"), is(true));
+		assertThat(accepts(filter, "200 0.1 10.1.0.0 /"), is(false));
+		assertThat(accepts(filter, "200 0.1 10.0.3 /"), is(false));
+		assertThat(accepts(filter, "200 0.1 - /"), is(false));
+		assertThrows(IllegalArgumentException.class, () -> FieldFilter.addressInRange(Field.CLIENT_IP_FIELD, "10.0.0.256", "10.0.0.1"));
+	}
+
+	/** @see FieldFilter#and(FieldFilter...) */
+	@Test
+	public void testAndOr() throws ParseException {
+		final FieldFilter errors = FieldFilter.atLeast(Field.SERVER_CLIENT_STATUS_FIELD, 400);
+		final FieldFilter slow = FieldFilter.atLeast(Field.TIME_TAKEN_FIELD, 1);
+		assertThat(accepts(FieldFilter.and(errors, slow), "500 2.0 10.0.0.1 /"), is(true));
+		assertThat(accepts(FieldFilter.and(errors, slow), "500 0.2 10.0.0.1 /"), is(false));
+		assertThat(accepts(FieldFilter.or(errors, slow), "200 2.0 10.0.0.1 /"), is(true));
+		assertThat(accepts(FieldFilter.or(errors, slow), "200 0.2 10.0.0.1 /"), is(false));
+		assertThat(accepts(FieldFilter.and(), "200 0.2 10.0.0.1 /"), is(true));
+		assertThat(accepts(FieldFilter.or(), "200 0.2 10.0.0.1 /"), is(false));
+	}
+
+	/**
+	 * Tests that filtering raw lines accepts exactly the entries that would be accepted by testing the parsed values, for random entries.
+	 * @see FieldFilterBenchmark
+	 */
+	@Test
+	public void testCompiledFilterMatchesParsedEntries() throws Exception {
+		final Random random = new Random(32);
+		final String[] stems = {"/a b", "/a+b", "/a +b", "/a+ b", "/a", "/ab", "/a  b"};
+		for(int i = 0; i < 10000; ++i) {
+			final Entry entry = new Entry();
+			entry.setFieldValue(Field.SERVER_CLIENT_STATUS_FIELD, random.nextInt(8) == 0 ? null : 100 + random.nextInt(500));
+			entry.setFieldValue(Field.TIME_TAKEN_FIELD, random.nextInt(8) == 0 ? null : random.nextInt(3000) / 1000.0);
+			entry.setFieldValue(Field.CLIENT_IP_FIELD, "10.0." + random.nextInt(4) + "." + random.nextInt(256));
+			entry.setFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD, random.nextInt(8) == 0 ? null : stems[random.nextInt(stems.length)]);
+			final String line = TEST_ELFF.serializeEntry(entry);
+			final Entry parsedEntry = TEST_ELFF.parseEntry(line);
+			final Integer status = parsedEntry.getFieldValue(Field.SERVER_CLIENT_STATUS_FIELD);
+			final Double timeTaken = parsedEntry.getFieldValue(Field.TIME_TAKEN_FIELD);
+			final String stem = parsedEntry.getFieldValue(Field.CLIENT_SERVER_URI_STEM_FIELD);
+			final String ip = parsedEntry.getFieldValue(Field.CLIENT_IP_FIELD);
+			for(final String value : stems) {
+				assertThat(line, accepts(FieldFilter.equalTo(Field.CLIENT_SERVER_URI_STEM_FIELD, value), line), is(value.equals(stem)));
+				assertThat(line, accepts(FieldFilter.startsWith(Field.CLIENT_SERVER_URI_STEM_FIELD, value), line), is(stem != null && stem.startsWith(value)));
+			}
+			assertThat(line, accepts(FieldFilter.and(FieldFilter.atLeast(Field.SERVER_CLIENT_STATUS_FIELD, 400), FieldFilter.atMost(Field.TIME_TAKEN_FIELD, 1.5)),
+					line), is(status != null && status >= 400 && timeTaken != null && timeTaken <= 1.5));
+			assertThat(line, accepts(FieldFilter.or(FieldFilter.equalTo(Field.SERVER_CLIENT_STATUS_FIELD, 404),
+					FieldFilter.addressInRange(Field.CLIENT_IP_FIELD, "10.0.1.0", "10.0.2.127")), line),
+					is(Integer.valueOf(404).equals(status) || ip.startsWith("10.0.1.") || ip.startsWith("10.0.2.") && Integer.parseInt(ip.substring(7)) <= 127));
+		}
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2026 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.text.elff;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link LazyEntry}.
+ */
+public class LazyEntryTest {
+
+	/** A URI field for testing. */
+	private static final Field<URI> REFERRER_URI_FIELD = new Field<URI>(FieldIdentifierPrefix.APPLICATION_SPECIFIC, "referrer", FieldType.URI);
+
+	/** The log used for testing. */
+	private static final ELFF TEST_ELFF = new ELFF(Field.SERVER_CLIENT_STATUS_FIELD, REFERRER_URI_FIELD, Field.CLIENT_IP_FIELD);
+
+	/** A decoded value is cached, so repeated requests return the same instance. */
+	@Test
+	public void testGetFieldValueCachesDecodedValue() throws Exception {
+		final Entry entry = TEST_ELFF.parseEntry("200 https://example.com/ 10.0.0.1\n");
+		assertThat(entry, is(instanceOf(LazyEntry.class)));
+		final URI uri = entry.getFieldValue(REFERRER_URI_FIELD);
+		assertThat(uri, is(URI.create("https://example.com/")));
+		assertThat(entry.getFieldValue(REFERRER_URI_FIELD), is(sameInstance(uri)));
+	}
+
+	/** An invalid value is only reported when its field is requested. */
+	@Test
+	public void testGetFieldValueDecodesOnlyRequestedField() throws Exception {
+		final Entry entry = TEST_ELFF.parseEntry("abc https://example.com/ 10.0.0.1\n");
+		assertThat(entry.getFieldValue(Field.CLIENT_IP_FIELD), is("10.0.0.1"));
+		assertThrows(IllegalArgumentException.class, () -> entry.getFieldValue(Field.SERVER_CLIENT_STATUS_FIELD));
+	}
+
+	/** @see LazyEntry#setFieldValue(Field, Object) */
+	@Test
+	public void testSetFieldValue() throws Exception {
+		final Entry entry = TEST_ELFF.parseEntry("200 - 10.0.0.1\n");
+		assertThat(entry.setFieldValue(Field.SERVER_CLIENT_STATUS_FIELD, 404), is(200));
+		assertThat(entry.getFieldValue(Field.SERVER_CLIENT_STATUS_FIELD), is(404));
+		assertThat(entry.setFieldValue(Field.CLIENT_IP_FIELD, null), is("10.0.0.1"));
+		assertThat(entry.getFieldValue(Field.CLIENT_IP_FIELD), is(nullValue()));
+		//fields not in the log are stored as in any other entry
+		assertThat(entry.getFieldValue(Field.DCS_ID_FIELD), is(nullValue()));
+		assertThat(entry.setFieldValue(Field.DCS_ID_FIELD, "dcs"), is(nullValue()));
+		assertThat(entry.getFieldValue(Field.DCS_ID_FIELD), is("dcs"));
+		assertThat(TEST_ELFF.serializeEntry(entry), is("404 - -\n"));
+	}
+
+}